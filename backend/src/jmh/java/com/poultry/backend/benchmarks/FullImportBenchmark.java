@@ -0,0 +1,82 @@
+package com.poultry.backend.benchmarks;
+
+import com.poultry.backend.PoultryManagementApplication;
+import com.poultry.backend.dtos.ImportResult;
+import com.poultry.backend.services.ImportProgress;
+import com.poultry.backend.services.PartnerService;
+import com.poultry.backend.services.ShipmentImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A teljes import (beolvasás, párhuzamos értelmezés, kötegelt mentés) memóriabeli H2 adatbázisba.
+ * Minden hívás előtt az adatbázis kiürül, így mindig új szállítmányok jönnek létre.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FullImportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private Path workbook;
+    private ConfigurableApplicationContext context;
+    private ShipmentImportService importService;
+    private PartnerService partnerService;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        workbook = SyntheticWorkbook.create(rows);
+        context = new SpringApplicationBuilder(PoultryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "logging.level.root=WARN")
+                .run();
+        importService = context.getBean(ShipmentImportService.class);
+        partnerService = context.getBean(PartnerService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearDatabase() {
+        partnerService.deleteAllData();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public ImportResult importWorkbook() throws IOException {
+        long start = System.nanoTime();
+        ImportResult result = importService.importFile(workbook, ImportProgress.NONE);
+        ImportMetricsProfiler.rowsProcessed(result.getSuccessCount() + result.getFailedCount(), System.nanoTime() - start);
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.poultry.backend.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Iterációnként három mérőszámot ad a JMH eredményekhez: a benchmarkok által jelentett sorokból
+ * és mért időből számolt sor/másodpercet, a soronként lefoglalt bájtokat (az összes élő szál
+ * foglalása osztva a sorok számával) és a heap csúcsfoglaltságát. Használat: {@code -prof com.poultry.backend.benchmarks.ImportMetricsProfiler}.
+ * A mérés közben leálló szálak foglalása kimarad, ezért a soronkénti érték alsó becslés.
+ */
+public class ImportMetricsProfiler implements InternalProfiler {
+
+    private static final AtomicLong ROWS = new AtomicLong();
+    private static final AtomicLong NANOS = new AtomicLong();
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private long rowsBefore;
+    private long nanosBefore;
+    private long allocatedBefore;
+
+    public static void rowsProcessed(long rows, long elapsedNanos) {
+        ROWS.addAndGet(rows);
+        NANOS.addAndGet(elapsedNanos);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Sor/másodperc, soronkénti foglalás és heap csúcs";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+        rowsBefore = ROWS.get();
+        nanosBefore = NANOS.get();
+        allocatedBefore = totalAllocatedBytes();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long rows = ROWS.get() - rowsBefore;
+        long nanos = NANOS.get() - nanosBefore;
+        long allocated = totalAllocatedBytes() - allocatedBefore;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        List<Result> results = new ArrayList<>();
+        if (rows > 0 && nanos > 0) {
+            results.add(new ScalarResult("import.rows.rate", rows / (nanos / 1e9), "rows/s", AggregationPolicy.AVG));
+        }
+        if (rows > 0) {
+            results.add(new ScalarResult("import.alloc.norm", (double) allocated / rows, "B/row", AggregationPolicy.AVG));
+        }
+        results.add(new ScalarResult("import.heap.peak", peakHeap / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+        return results;
+    }
+
+    private long totalAllocatedBytes() {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) total += allocated;
+        }
+        return total;
+    }
+}
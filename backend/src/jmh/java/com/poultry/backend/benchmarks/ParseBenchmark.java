@@ -0,0 +1,72 @@
+package com.poultry.backend.benchmarks;
+
+import com.poultry.backend.dtos.ImportResult;
+import com.poultry.backend.services.ShipmentColumnMapping;
+import com.poultry.backend.services.ShipmentRowParser;
+import com.poultry.backend.utils.StreamingSheetReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Az értelmezési szakasz egy szálon: SAX beolvasás, a fejlécből feloldott oszlopkiosztás,
+ * típusos cellaolvasás és a Név/Kód, nevelő regexek, adatbázis nélkül.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private Path workbook;
+    private final ShipmentRowParser parser = new ShipmentRowParser();
+
+    @Setup(Level.Trial)
+    public void createWorkbook() throws IOException {
+        workbook = SyntheticWorkbook.create(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public void parseWorkbook(Blackhole blackhole) throws IOException {
+        long start = System.nanoTime();
+        long[] processed = new long[1];
+        ShipmentColumnMapping[] columns = {ShipmentColumnMapping.DEFAULT};
+        ImportResult errors = new ImportResult();
+        StreamingSheetReader.readFirstSheet(workbook.toFile(), row -> {
+            if (row.getRowNum() == 0) {
+                columns[0] = ShipmentColumnMapping.fromHeader(row);
+                return;
+            }
+            processed[0]++;
+            blackhole.consume(parser.parse(row, columns[0], errors));
+        });
+        blackhole.consume(errors);
+        ImportMetricsProfiler.rowsProcessed(processed[0], System.nanoTime() - start);
+    }
+}
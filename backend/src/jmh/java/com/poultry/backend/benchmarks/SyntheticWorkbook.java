@@ -0,0 +1,97 @@
+package com.poultry.backend.benchmarks;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Az importban várt oszlopsorrendű (A–U) véletlenszerű, de rögzített magból generált munkafüzet.
+ * Néhány sor szándékosan hibás, hogy a hibaág is szerepeljen a mérésben.
+ */
+public final class SyntheticWorkbook {
+
+    private static final String[] HEADER = {
+            "Nevelő", "Név/Kód", "Telephely", "Megye", "Szállítás dátuma", "Befogott db", "Befogott kg",
+            "Átlag kg", "Vágási hét", "Vágás dátuma", "Beszállított db", "Beszállított kg", "Leadott átl. kg",
+            "Útihulla db", "Útihulla kg", "Kóser %", "Máj kg", "Ráhízás", "Elhullás db", "Elhullás %", "Tömés napok"
+    };
+    private static final String[] GROWER_CITIES = {"SZEGED", "PÉCS", "BAJA", "KECSKEMÉT", "GYŐR"};
+    private static final String[] CITIES = {"Szeged", "Baja", "Kiskunhalas", "Eger", "Győr", "Szentes"};
+    private static final String[] COUNTIES = {"Csongrád", "Bács-Kiskun", "Heves", "Győr-Moson-Sopron"};
+
+    private SyntheticWorkbook() {}
+
+    public static Path create(int rows) throws IOException {
+        Path file = Files.createTempFile("synthetic-shipments-" + rows + "-", ".xlsx");
+        Random random = new Random(rows);
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(500);
+             OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Szállítások");
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy.mm.dd"));
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADER.length; i++) {
+                header.createCell(i).setCellValue(HEADER[i]);
+            }
+
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                int growerIndex = random.nextInt(50);
+                int partnerId = 1000 + random.nextInt(200);
+                LocalDate delivery = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+                int quantity = 800 + random.nextInt(800);
+                double totalWeight = quantity * (4.5 + random.nextDouble());
+                int transportMortality = random.nextInt(10);
+
+                row.createCell(0).setCellValue("Nevelő" + growerIndex + " " + GROWER_CITIES[growerIndex % GROWER_CITIES.length]);
+                if (r % 1000 == 0) {
+                    row.createCell(1).setCellValue("hibás sor");
+                    continue;
+                }
+                row.createCell(1).setCellValue("Partner " + partnerId + " Kft " + partnerId + "/" + r + "/25");
+                row.createCell(2).setCellValue(CITIES[partnerId % CITIES.length]);
+                row.createCell(3).setCellValue(COUNTIES[partnerId % COUNTIES.length]);
+                dateCell(row, 4, delivery, dateStyle);
+                row.createCell(5).setCellValue(quantity);
+                row.createCell(6).setCellValue(totalWeight);
+                row.createCell(7).setCellValue(totalWeight / quantity);
+                row.createCell(8).setCellValue(delivery.plusDays(14).getDayOfYear() / 7 + 1);
+                if (r % 10 == 0) {
+                    row.createCell(9).setCellValue(delivery.plusDays(14).toString().replace("-", "."));
+                } else {
+                    dateCell(row, 9, delivery.plusDays(14), dateStyle);
+                }
+                row.createCell(10).setCellValue(quantity - transportMortality);
+                row.createCell(11).setCellValue(totalWeight * 1.4);
+                row.createCell(13).setCellValue(transportMortality);
+                row.createCell(14).setCellValue(transportMortality * 6.5);
+                row.createCell(15).setCellValue(60 + random.nextInt(40));
+                row.createCell(16).setCellValue(0.5 + random.nextDouble() * 0.4);
+                row.createCell(18).setCellValue(random.nextInt(20));
+                row.createCell(19).setCellValue(random.nextDouble() * 0.02);
+                row.createCell(20).setCellValue(12 + random.nextInt(6));
+            }
+
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private static void dateCell(Row row, int index, LocalDate date, CellStyle style) {
+        Cell cell = row.createCell(index);
+        cell.setCellValue(date);
+        cell.setCellStyle(style);
+    }
+}
@@ -0,0 +1,46 @@
+package com.poultry.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * A korábban IDENTITY oszlopokkal létrehozott táblák mellé a séma-frissítés új, 1-ről induló
+ * szekvenciákat hoz létre. Indításkor a szekvenciákat a táblák legnagyobb azonosítója fölé
+ * állítjuk, hogy a kötegelt beszúrások ne ütközzenek a meglévő sorokkal.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdSequenceInitializer {
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "shipments", "shipments_seq",
+            "growers", "growers_seq",
+            "partner_locations", "partner_locations_seq",
+            "partner_groups", "partner_groups_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+
+            if (maxId != null && nextValue != null && nextValue <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+            }
+        });
+    }
+}
@@ -1,12 +1,24 @@
 package com.poultry.backend.controller;
 
+import com.poultry.backend.dtos.LeaderboardCacheStatsDTO;
 import com.poultry.backend.dtos.LeaderboardDTO;
 import com.poultry.backend.dtos.PartnerStatsDTO;
+import com.poultry.backend.dtos.ShipmentQueryDTO;
+import com.poultry.backend.dtos.ShipmentQueryResultDTO;
+import com.poultry.backend.dtos.StatsDistributionDTO;
+import com.poultry.backend.dtos.TrendSeriesDTO;
 import com.poultry.backend.services.AnalyticsService;
+import com.poultry.backend.services.DistributionService;
+import com.poultry.backend.services.LeaderboardCache;
+import com.poultry.backend.services.LeaderboardQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -16,7 +28,11 @@ import java.util.Map;
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 public class AnalyticsController {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final AnalyticsService analyticsService;
+    private final LeaderboardCache leaderboardCache;
+    private final DistributionService distributionService;
 
     @GetMapping("/overview")
     public Map<Long, PartnerStatsDTO> getOverview() {
@@ -38,8 +54,82 @@ public class AnalyticsController {
         return analyticsService.getGrowerStats(id);
     }
 
+    @GetMapping("/distribution/partner/{id}")
+    public StatsDistributionDTO getPartnerDistribution(@PathVariable Long id, @RequestParam(defaultValue = "10") int bins) {
+        return distributionService.getPartnerDistribution(id, bins);
+    }
+
+    @GetMapping("/distribution/location/{id}")
+    public StatsDistributionDTO getLocationDistribution(@PathVariable Long id, @RequestParam(defaultValue = "10") int bins) {
+        return distributionService.getLocationDistribution(id, bins);
+    }
+
+    @GetMapping("/distribution/grower/{id}")
+    public StatsDistributionDTO getGrowerDistribution(@PathVariable Long id, @RequestParam(defaultValue = "10") int bins) {
+        return distributionService.getGrowerDistribution(id, bins);
+    }
+
+    @GetMapping("/distribution/group/{id}")
+    public StatsDistributionDTO getGroupDistribution(@PathVariable Long id, @RequestParam(defaultValue = "10") int bins) {
+        return distributionService.getGroupDistribution(id, bins);
+    }
+
+    @GetMapping("/trend/partner/{id}")
+    public List<TrendSeriesDTO> getPartnerTrend(@PathVariable Long id,
+                                                @RequestParam(required = false) Integer fromYear,
+                                                @RequestParam(required = false) Integer toYear) {
+        return analyticsService.getPartnerTrend(id, fromYear, toYear);
+    }
+
+    @GetMapping("/trend/group/{id}")
+    public List<TrendSeriesDTO> getGroupTrend(@PathVariable Long id,
+                                              @RequestParam(required = false) Integer fromYear,
+                                              @RequestParam(required = false) Integer toYear) {
+        return analyticsService.getGroupTrend(id, fromYear, toYear);
+    }
+
+    @GetMapping("/trend/location/{id}")
+    public List<TrendSeriesDTO> getLocationTrend(@PathVariable Long id,
+                                                 @RequestParam(required = false) Integer fromYear,
+                                                 @RequestParam(required = false) Integer toYear) {
+        return analyticsService.getLocationTrend(id, fromYear, toYear);
+    }
+
+    @GetMapping("/trend/grower/{id}")
+    public List<TrendSeriesDTO> getGrowerTrend(@PathVariable Long id,
+                                               @RequestParam(required = false) Integer fromYear,
+                                               @RequestParam(required = false) Integer toYear) {
+        return analyticsService.getGrowerTrend(id, fromYear, toYear);
+    }
+
+    /**
+     * Paraméterek nélkül a teljes ranglista az eredeti sorrendben. A sort (score, liver, kosher, mortality),
+     * type (all, group, partner), offset és limit megadásával csak a kért sorok jönnek vissza;
+     * a szűrésnek megfelelő összes sor száma az X-Total-Count fejlécben van.
+     */
     @GetMapping("/leaderboard")
-    public List<LeaderboardDTO> getLeaderboard() {
-        return analyticsService.getLeaderboard();
+    public ResponseEntity<List<LeaderboardDTO>> getLeaderboard(@RequestParam(required = false) String sort,
+                                                               @RequestParam(required = false) String type,
+                                                               @RequestParam(required = false) Integer offset,
+                                                               @RequestParam(required = false) Integer limit) {
+        LeaderboardCache.Page page = leaderboardCache.select(LeaderboardQuery.of(sort, type, offset, limit));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.total()))
+                .body(page.items());
+    }
+
+    @GetMapping("/leaderboard/cache")
+    public LeaderboardCacheStatsDTO getLeaderboardCacheStats() {
+        return leaderboardCache.getStats();
+    }
+
+    @PostMapping("/query")
+    public List<ShipmentQueryResultDTO> query(@RequestBody ShipmentQueryDTO query) {
+        return analyticsService.query(query);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public void rebuildRollups() {
+        analyticsService.rebuildRollups();
     }
 }
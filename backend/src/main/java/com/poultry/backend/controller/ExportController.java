@@ -1,15 +1,15 @@
 package com.poultry.backend.controller;
 
+import com.poultry.backend.services.ExportCacheService;
 import com.poultry.backend.services.ShipmentExportService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,16 +18,50 @@ import java.util.List;
 public class ExportController {
 
     private final ShipmentExportService shipmentExportService;
+    private final ExportCacheService exportCacheService;
 
     @PostMapping("/selected-partners")
-    public ResponseEntity<Resource> exportSelected(@RequestBody List<Long> partnerIds) throws IOException {
-        String filename = "szallitmanyok_export.xlsx";
+    public ResponseEntity<StreamingResponseBody> exportSelected(@RequestBody List<Long> partnerIds,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedExport("xlsx", partnerIds, ifNoneMatch, "szallitmanyok_export.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", shipmentExportService::writeShipments);
+    }
+
+    @PostMapping("/selected-partners/csv")
+    public ResponseEntity<StreamingResponseBody> exportSelectedCsv(@RequestBody List<Long> partnerIds,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedExport("csv", partnerIds, ifNoneMatch, "szallitmanyok_export.csv.gz",
+                "application/gzip", shipmentExportService::writeShipmentsCsv);
+    }
+
+    @PostMapping("/selected-partners/zip")
+    public ResponseEntity<StreamingResponseBody> exportSelectedZip(@RequestBody List<Long> partnerIds,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedExport("zip", partnerIds, ifNoneMatch, "szallitmanyok_partnerenkent.zip",
+                "application/zip", shipmentExportService::writeShipmentsZip);
+    }
+
+    /**
+     * Ha a kliens ETag-je még érvényes, 304-et adunk vissza, különben a gyorsítótárból vagy frissen generálva streamelünk.
+     * POST kérésnél az "If-None-Match: *" előfeltétele sosem teljesül (az export mindig létezik), erre 412 a válasz.
+     */
+    private ResponseEntity<StreamingResponseBody> cachedExport(String format, List<Long> partnerIds, String ifNoneMatch,
+                                                               String filename, String contentType,
+                                                               ExportCacheService.ExportWriter writer) {
+        if (ifNoneMatch != null && ifNoneMatch.trim().equals("*")) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        ExportCacheService.ExportKey key = exportCacheService.key(format, partnerIds);
+        if (key.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(key.etag()).build();
+        }
 
-        InputStreamResource file = new InputStreamResource(shipmentExportService.exportShipments(partnerIds));
+        StreamingResponseBody file = out -> exportCacheService.write(key, out, writer);
 
         return ResponseEntity.ok()
+                .eTag(key.etag())
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(MediaType.parseMediaType(contentType))
                 .body(file);
     }
-}
\ No newline at end of file
+}
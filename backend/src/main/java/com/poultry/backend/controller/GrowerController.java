@@ -1,5 +1,6 @@
 package com.poultry.backend.controller;
 
+import com.poultry.backend.dtos.GrowerStatsDTO;
 import com.poultry.backend.entities.Grower;
 import com.poultry.backend.repositories.GrowerRepository;
 import com.poultry.backend.services.GrowerService;
@@ -15,7 +16,7 @@ public class GrowerController {
     private final GrowerService growerService;
 
     @GetMapping
-    public List<Grower> getAllGrowers() {
+    public List<GrowerStatsDTO> getAllGrowers() {
         return growerService.getAllGrowersWithStats();
     }
 
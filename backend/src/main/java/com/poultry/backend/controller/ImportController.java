@@ -1,9 +1,14 @@
 package com.poultry.backend.controller;
 
+import com.poultry.backend.dtos.ImportDryRunResult;
+import com.poultry.backend.dtos.ImportJobStatusDTO;
 import com.poultry.backend.dtos.ImportResult;
+import com.poultry.backend.services.ImportJobService;
 import com.poultry.backend.services.ShipmentImportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -18,8 +23,38 @@ public class ImportController {
     @Autowired
     private ShipmentImportService shipmentImportService;
 
+    @Autowired
+    private ImportJobService importJobService;
+
     @PostMapping("/excel")
     public ResponseEntity<ImportResult> uploadFile(@RequestParam("file") MultipartFile file) throws IOException {
         return ResponseEntity.ok(shipmentImportService.importExcel(file));
     }
+
+    @PostMapping("/excel/dry-run")
+    public ResponseEntity<ImportDryRunResult> dryRunFile(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(shipmentImportService.dryRunExcel(file));
+    }
+
+    @PostMapping("/csv")
+    public ResponseEntity<ImportResult> uploadCsv(@RequestParam("file") MultipartFile file,
+                                                  @RequestParam(value = "charset", defaultValue = "UTF-8") String charset) throws IOException {
+        return ResponseEntity.ok(shipmentImportService.importCsv(file, charset));
+    }
+
+    @PostMapping("/csv/dry-run")
+    public ResponseEntity<ImportDryRunResult> dryRunCsv(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(value = "charset", defaultValue = "UTF-8") String charset) throws IOException {
+        return ResponseEntity.ok(shipmentImportService.dryRunCsv(file, charset));
+    }
+
+    @PostMapping("/excel/jobs")
+    public ResponseEntity<ImportJobStatusDTO> startImportJob(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.accepted().body(importJobService.submit(file));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ImportJobStatusDTO getImportJob(@PathVariable String jobId) {
+        return importJobService.getStatus(jobId);
+    }
 }
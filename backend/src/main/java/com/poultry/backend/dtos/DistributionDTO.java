@@ -0,0 +1,21 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Egy mutató eloszlása: darabszám, szélsőértékek, becsült percentilisek és egyenlő szélességű hisztogram.
+ * A binEdges a rekeszhatárokat tartalmazza (bins + 1 elem), a binCounts a rekeszenkénti becsült darabszámot.
+ */
+@Data
+@AllArgsConstructor
+public class DistributionDTO {
+    private long count;
+    private Double min;
+    private Double p10;
+    private Double median;
+    private Double p90;
+    private Double max;
+    private double[] binEdges;
+    private long[] binCounts;
+}
@@ -0,0 +1,11 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GrowerKeyDTO {
+    private String name;
+    private String city;
+}
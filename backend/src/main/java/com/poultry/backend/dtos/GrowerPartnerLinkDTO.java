@@ -0,0 +1,12 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GrowerPartnerLinkDTO {
+    private Long growerId;
+    private Long partnerId;
+    private String partnerName;
+}
@@ -0,0 +1,15 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Egy nevelő egy partnernek beszállított összes darabszáma.
+ */
+@Data
+@AllArgsConstructor
+public class GrowerPartnerQuantityDTO {
+    private Long growerId;
+    private Long partnerId;
+    private Long totalQuantity;
+}
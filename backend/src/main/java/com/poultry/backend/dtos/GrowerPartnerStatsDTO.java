@@ -0,0 +1,18 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Egy nevelőhöz kapcsolt partner a telephelyeivel és az ettől a nevelőtől kapott összes darabszámmal.
+ */
+@Data
+@AllArgsConstructor
+public class GrowerPartnerStatsDTO {
+    private Long id;
+    private String name;
+    private List<LocationKeyDTO> locations;
+    private long totalQuantity;
+}
@@ -0,0 +1,20 @@
+package com.poultry.backend.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class GrowerStatsDTO {
+    private Long id;
+    private String name;
+    private String city;
+    private List<GrowerPartnerStatsDTO> partners = new ArrayList<>();
+
+    public GrowerStatsDTO(Long id, String name, String city) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+    }
+}
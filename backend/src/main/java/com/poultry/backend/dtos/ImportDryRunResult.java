@@ -0,0 +1,13 @@
+package com.poultry.backend.dtos;
+
+import lombok.Data;
+
+@Data
+public class ImportDryRunResult {
+    private ImportResult result = new ImportResult();
+    private int growersToCreate = 0;
+    private int partnersToCreate = 0;
+    private int locationsToCreate = 0;
+    private int shipmentsToCreate = 0;
+    private int shipmentsToUpdate = 0;
+}
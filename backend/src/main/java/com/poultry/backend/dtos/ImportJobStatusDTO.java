@@ -0,0 +1,27 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobStatusDTO {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private String fileName;
+    private Status status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int rowsProcessed;
+    private int successCount;
+    private int failedCount;
+    private double rowsPerSecond;
+    private String errorMessage;
+    private ImportResult result;
+}
@@ -2,13 +2,18 @@ package com.poultry.backend.dtos;
 
 import lombok.Data;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class ImportResult {
     private int successCount = 0;
     private int failedCount = 0;
+    private int unchangedCount = 0;
+    private boolean alreadyImported = false;
     private List<String> errorMessages = new ArrayList<>();
+    private Map<String, Integer> columnFailures = new LinkedHashMap<>();
 
     public void addError(int rowNum, String message) {
         this.failedCount++;
@@ -18,4 +23,20 @@ public class ImportResult {
     public void incrementSuccess() {
         this.successCount++;
     }
+
+    public void addColumnFailure(String column) {
+        this.columnFailures.merge(column, 1, Integer::sum);
+    }
+
+    public void incrementUnchanged() {
+        this.unchangedCount++;
+    }
+
+    public void merge(ImportResult other) {
+        this.successCount += other.successCount;
+        this.unchangedCount += other.unchangedCount;
+        this.failedCount += other.failedCount;
+        this.errorMessages.addAll(other.errorMessages);
+        other.columnFailures.forEach((column, count) -> this.columnFailures.merge(column, count, Integer::sum));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardCacheStatsDTO {
+    private Long ageMillis;
+    private boolean stale;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long recomputations;
+    private long failedRecomputations;
+    private Long lastComputeMillis;
+    private String lastError;
+}
@@ -0,0 +1,12 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PartnerSummaryDTO {
+    private Long id;
+    private String name;
+    private Long groupId;
+}
@@ -0,0 +1,27 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Egy szállítmány azon mezői, amelyekből az oszlopos elemzési pillanatkép épül.
+ */
+@Data
+@AllArgsConstructor
+public class ShipmentColumnRowDTO {
+    private Long partnerId;
+    private Long locationId;
+    private Long growerId;
+    private Long groupId;
+    private LocalDate processingDate;
+    private LocalDate deliveryDate;
+    private Integer processingWeek;
+    private Integer quantity;
+    private Double netWeight;
+    private Double liverWeight;
+    private Double kosherPercent;
+    private Double fatteningRate;
+    private Double mortalityRate;
+}
@@ -0,0 +1,34 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Az exporthoz szükséges mezők egyetlen lapos sorban, entitások betöltése nélkül.
+ */
+@Data
+@AllArgsConstructor
+public class ShipmentExportRowDTO {
+    private String growerName;
+    private String growerCity;
+    private Long partnerId;
+    private String partnerName;
+    private String locationCity;
+    private String locationCounty;
+    private String deliveryCode;
+    private LocalDate deliveryDate;
+    private LocalDate processingDate;
+    private Integer processingWeek;
+    private Integer quantity;
+    private Double totalWeight;
+    private Integer mortalityCount;
+    private Integer transportMortality;
+    private Double transportMortalityKg;
+    private Double netWeight;
+    private Double kosherPercent;
+    private Double liverWeight;
+    private Double fatteningRate;
+    private Integer fatteningDays;
+}
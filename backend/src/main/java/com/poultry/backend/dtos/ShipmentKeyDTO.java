@@ -0,0 +1,13 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ShipmentKeyDTO {
+    private Long shipmentId;
+    private String deliveryCode;
+    private Long locationId;
+    private Long contentHash;
+}
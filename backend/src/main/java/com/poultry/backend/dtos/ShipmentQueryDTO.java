@@ -0,0 +1,22 @@
+package com.poultry.backend.dtos;
+
+import com.poultry.backend.services.ColumnarShipments;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Szűrés és csoportosítás az oszlopos pillanatképen. Az üresen hagyott feltétel nem szűr;
+ * a dátumhatárok a feldolgozás, ennek hiányában a szállítás napjára vonatkoznak.
+ */
+@Data
+public class ShipmentQueryDTO {
+    private List<Long> partnerIds;
+    private List<Long> groupIds;
+    private List<Long> locationIds;
+    private List<Long> growerIds;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private ColumnarShipments.Dimension groupBy;
+}
@@ -0,0 +1,14 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ShipmentQueryResultDTO {
+    private Long key;
+    private long shipmentCount;
+    private long totalQuantity;
+    private double totalNetWeight;
+    private PartnerStatsDTO stats;
+}
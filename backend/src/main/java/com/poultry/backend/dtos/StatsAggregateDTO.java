@@ -0,0 +1,49 @@
+package com.poultry.backend.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Egy partner, telephely vagy nevelő mutatóinak összegei és a nem üres értékek darabszámai.
+ * Az átlag ezekből számolható, és csoportokra összegezve is pontos marad.
+ */
+@Data
+@NoArgsConstructor
+public class StatsAggregateDTO {
+    private Long id;
+    private long shipmentCount;
+    private double sumLiverWeight;
+    private long countLiverWeight;
+    private double sumKosherPercent;
+    private long countKosherPercent;
+    private double sumFatteningRate;
+    private long countFatteningRate;
+    private double sumMortalityRate;
+    private long countMortalityRate;
+
+    public StatsAggregateDTO(Long id, Long shipmentCount, Double sumLiverWeight, Long countLiverWeight, Double sumKosherPercent, Long countKosherPercent,
+                             Double sumFatteningRate, Long countFatteningRate, Double sumMortalityRate, Long countMortalityRate) {
+        this.id = id;
+        this.shipmentCount = shipmentCount != null ? shipmentCount : 0;
+        this.sumLiverWeight = sumLiverWeight != null ? sumLiverWeight : 0.0;
+        this.countLiverWeight = countLiverWeight != null ? countLiverWeight : 0;
+        this.sumKosherPercent = sumKosherPercent != null ? sumKosherPercent : 0.0;
+        this.countKosherPercent = countKosherPercent != null ? countKosherPercent : 0;
+        this.sumFatteningRate = sumFatteningRate != null ? sumFatteningRate : 0.0;
+        this.countFatteningRate = countFatteningRate != null ? countFatteningRate : 0;
+        this.sumMortalityRate = sumMortalityRate != null ? sumMortalityRate : 0.0;
+        this.countMortalityRate = countMortalityRate != null ? countMortalityRate : 0;
+    }
+
+    public void merge(StatsAggregateDTO other) {
+        this.shipmentCount += other.shipmentCount;
+        this.sumLiverWeight += other.sumLiverWeight;
+        this.countLiverWeight += other.countLiverWeight;
+        this.sumKosherPercent += other.sumKosherPercent;
+        this.countKosherPercent += other.countKosherPercent;
+        this.sumFatteningRate += other.sumFatteningRate;
+        this.countFatteningRate += other.countFatteningRate;
+        this.sumMortalityRate += other.sumMortalityRate;
+        this.countMortalityRate += other.countMortalityRate;
+    }
+}
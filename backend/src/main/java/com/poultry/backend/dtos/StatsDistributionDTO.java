@@ -0,0 +1,14 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StatsDistributionDTO {
+    private Long id;
+    private DistributionDTO liverWeight;
+    private DistributionDTO kosherPercent;
+    private DistributionDTO fatteningRate;
+    private DistributionDTO mortalityRate;
+}
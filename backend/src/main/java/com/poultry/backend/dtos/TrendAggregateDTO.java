@@ -0,0 +1,29 @@
+package com.poultry.backend.dtos;
+
+import lombok.Data;
+
+/**
+ * Egy partner egy évre (a feldolgozás, ennek hiányában a szállítás naptári éve) és vágási hétre vett összesítése.
+ * A mutatók összegei és darabszámai a StatsAggregateDTO-ban vannak, az átlagokat ezekből számoljuk.
+ */
+@Data
+public class TrendAggregateDTO {
+    private Long partnerId;
+    private String partnerName;
+    private int year;
+    private Integer week;
+    private long quantity;
+    private StatsAggregateDTO totals;
+
+    public TrendAggregateDTO(Long partnerId, String partnerName, Integer year, Integer week, Long quantity, Long shipmentCount,
+                             Double sumLiverWeight, Long countLiverWeight, Double sumKosherPercent, Long countKosherPercent,
+                             Double sumFatteningRate, Long countFatteningRate, Double sumMortalityRate, Long countMortalityRate) {
+        this.partnerId = partnerId;
+        this.partnerName = partnerName;
+        this.year = year;
+        this.week = week;
+        this.quantity = quantity != null ? quantity : 0;
+        this.totals = new StatsAggregateDTO(partnerId, shipmentCount, sumLiverWeight, countLiverWeight, sumKosherPercent, countKosherPercent,
+                sumFatteningRate, countFatteningRate, sumMortalityRate, countMortalityRate);
+    }
+}
@@ -0,0 +1,21 @@
+package com.poultry.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Egy partner egy évének heti idősora. Minden tömb 53 elemű, az i. elem az (i+1). hét értéke.
+ */
+@Data
+@AllArgsConstructor
+public class TrendSeriesDTO {
+    private Long partnerId;
+    private String partnerName;
+    private int year;
+    private long[] quantity;
+    private long[] shipmentCount;
+    private double[] avgLiverWeight;
+    private double[] avgKosherPercent;
+    private double[] avgFatteningRate;
+    private double[] avgMortalityRate;
+}
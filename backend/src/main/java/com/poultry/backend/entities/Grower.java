@@ -17,7 +17,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Grower {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "growers_seq")
+    @SequenceGenerator(name = "growers_seq", sequenceName = "growers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,26 @@
+package com.poultry.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_fingerprints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportFingerprint {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    private LocalDateTime importedAt;
+
+    private Integer rowCount;
+}
@@ -13,7 +13,8 @@ import java.util.List;
 @AllArgsConstructor
 public class PartnerGroup {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "partner_groups_seq")
+    @SequenceGenerator(name = "partner_groups_seq", sequenceName = "partner_groups_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -15,7 +15,8 @@ import lombok.ToString;
 @AllArgsConstructor
 public class PartnerLocation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "partner_locations_seq")
+    @SequenceGenerator(name = "partner_locations_seq", sequenceName = "partner_locations_seq", allocationSize = 50)
     private Long id;
 
     private String city;
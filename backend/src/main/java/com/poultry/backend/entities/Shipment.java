@@ -1,5 +1,6 @@
 package com.poultry.backend.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -17,7 +18,8 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class Shipment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipments_seq")
+    @SequenceGenerator(name = "shipments_seq", sequenceName = "shipments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -49,6 +51,9 @@ public class Shipment {
     private Integer netQuantity;
     private Double netWeight;
 
+    @JsonIgnore
+    private Long contentHash;
+
     public Partner getPartner() {
         return location != null ? location.getPartner() : null;
     }
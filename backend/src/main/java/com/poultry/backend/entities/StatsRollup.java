@@ -0,0 +1,63 @@
+package com.poultry.backend.entities;
+
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Partnerenként, telephelyenként és nevelőnként a szállítmány-mutatók futó összegei és darabszámai.
+ * A szállítmányok írásakor ugyanabban a tranzakcióban frissül, így a statisztika egyetlen sor olvasása.
+ */
+@Entity
+@Table(name = "stats_rollups")
+@IdClass(StatsRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRollup {
+
+    public enum Scope { PARTNER, LOCATION, GROWER }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Scope scope;
+        private Long entityId;
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Scope scope;
+
+    @Id
+    private Long entityId;
+
+    private long shipmentCount;
+    private double sumLiverWeight;
+    private long countLiverWeight;
+    private double sumKosherPercent;
+    private long countKosherPercent;
+    private double sumFatteningRate;
+    private long countFatteningRate;
+    private double sumMortalityRate;
+    private long countMortalityRate;
+
+    public static StatsRollup of(Scope scope, StatsAggregateDTO totals) {
+        return new StatsRollup(scope, totals.getId(), totals.getShipmentCount(),
+                totals.getSumLiverWeight(), totals.getCountLiverWeight(),
+                totals.getSumKosherPercent(), totals.getCountKosherPercent(),
+                totals.getSumFatteningRate(), totals.getCountFatteningRate(),
+                totals.getSumMortalityRate(), totals.getCountMortalityRate());
+    }
+
+    public StatsAggregateDTO toAggregate() {
+        return new StatsAggregateDTO(entityId, shipmentCount, sumLiverWeight, countLiverWeight, sumKosherPercent, countKosherPercent,
+                sumFatteningRate, countFatteningRate, sumMortalityRate, countMortalityRate);
+    }
+}
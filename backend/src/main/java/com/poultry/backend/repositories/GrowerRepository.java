@@ -1,10 +1,24 @@
 package com.poultry.backend.repositories;
 
+import com.poultry.backend.dtos.GrowerKeyDTO;
+import com.poultry.backend.dtos.GrowerPartnerLinkDTO;
+import com.poultry.backend.dtos.GrowerStatsDTO;
 import com.poultry.backend.entities.Grower;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface GrowerRepository extends JpaRepository<Grower, Long> {
     Optional<Grower> findByNameAndCity(String name, String city);
 
+    @Query("SELECT new com.poultry.backend.dtos.GrowerKeyDTO(g.name, g.city) FROM Grower g")
+    List<GrowerKeyDTO> findAllGrowerKeys();
+
+    @Query("SELECT new com.poultry.backend.dtos.GrowerStatsDTO(g.id, g.name, g.city) FROM Grower g ORDER BY g.id")
+    List<GrowerStatsDTO> findAllStatsRows();
+
+    @Query("SELECT new com.poultry.backend.dtos.GrowerPartnerLinkDTO(g.id, p.id, p.name) FROM Grower g JOIN g.partners p ORDER BY p.id")
+    List<GrowerPartnerLinkDTO> findAllPartnerLinks();
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.poultry.backend.repositories;
+
+import com.poultry.backend.entities.ImportFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportFingerprintRepository extends JpaRepository<ImportFingerprint, String> {
+}
@@ -1,13 +1,19 @@
 package com.poultry.backend.repositories;
 
+import com.poultry.backend.dtos.LocationKeyDTO;
 import com.poultry.backend.entities.Partner;
 import com.poultry.backend.entities.PartnerLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartnerLocationRepository extends JpaRepository<PartnerLocation, Long> {
     Optional<PartnerLocation> findByPartnerAndCity(Partner partner, String city);
+
+    @Query("SELECT new com.poultry.backend.dtos.LocationKeyDTO(l.id, l.partner.id, l.city) FROM PartnerLocation l")
+    List<LocationKeyDTO> findAllLocationKeys();
 }
@@ -1,13 +1,25 @@
 package com.poultry.backend.repositories;
 
+import com.poultry.backend.dtos.PartnerSummaryDTO;
 import com.poultry.backend.entities.Partner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartnerRepository extends JpaRepository<Partner, Long> {
 
     Optional<Partner> findByName(String name);
+
+    @Query("SELECT p.id FROM Partner p")
+    List<Long> findAllIds();
+
+    @Query("SELECT new com.poultry.backend.dtos.PartnerSummaryDTO(p.id, p.name, g.id) FROM Partner p LEFT JOIN p.group g ORDER BY p.id")
+    List<PartnerSummaryDTO> findAllSummaries();
+
+    @Query("SELECT p.id FROM Partner p WHERE p.group.id = :groupId")
+    List<Long> findIdsByGroupId(Long groupId);
 }
@@ -1,16 +1,27 @@
 package com.poultry.backend.repositories;
 
+import com.poultry.backend.dtos.GrowerPartnerQuantityDTO;
 import com.poultry.backend.dtos.PartnerTotalQuantityDTO;
+import com.poultry.backend.dtos.ShipmentColumnRowDTO;
+import com.poultry.backend.dtos.ShipmentExportRowDTO;
+import com.poultry.backend.dtos.ShipmentKeyDTO;
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import com.poultry.backend.dtos.TrendAggregateDTO;
 import com.poultry.backend.entities.Grower;
 import com.poultry.backend.entities.Partner;
 import com.poultry.backend.entities.PartnerLocation;
 import com.poultry.backend.entities.Shipment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
@@ -26,11 +37,106 @@ public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
 
     List<Shipment> findByGrowerIdOrderByProcessingDateDesc(Long growerId);
 
-    @Query("SELECT SUM(s.quantity) FROM Shipment s WHERE s.grower.id = :growerId AND s.location.partner.id = :partnerId")
-    Integer sumQuantityByGrowerAndPartner(Long growerId, Long partnerId);
-
-
     @Query("SELECT new com.poultry.backend.dtos.PartnerTotalQuantityDTO(s.location.partner.id, SUM(s.netQuantity)) " +
             "FROM Shipment s GROUP BY s.location.partner.id")
     List<PartnerTotalQuantityDTO> getTotalQuantitiesByPartner();
+
+    @Query("SELECT new com.poultry.backend.dtos.GrowerPartnerQuantityDTO(s.grower.id, s.location.partner.id, SUM(s.quantity)) " +
+            "FROM Shipment s WHERE s.grower IS NOT NULL GROUP BY s.grower.id, s.location.partner.id")
+    List<GrowerPartnerQuantityDTO> getTotalQuantitiesByGrowerAndPartner();
+
+    @Query("SELECT new com.poultry.backend.dtos.ShipmentKeyDTO(s.id, s.deliveryCode, s.location.id, s.contentHash) FROM Shipment s")
+    List<ShipmentKeyDTO> findAllShipmentKeys();
+
+    @Query("SELECT new com.poultry.backend.dtos.StatsAggregateDTO(s.location.partner.id, COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s " +
+            "GROUP BY s.location.partner.id")
+    List<StatsAggregateDTO> aggregateStatsByPartner();
+
+    @Query("SELECT new com.poultry.backend.dtos.StatsAggregateDTO(s.location.id, COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s " +
+            "GROUP BY s.location.id")
+    List<StatsAggregateDTO> aggregateStatsByLocation();
+
+    @Query("SELECT new com.poultry.backend.dtos.StatsAggregateDTO(s.grower.id, COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s " +
+            "WHERE s.grower IS NOT NULL " +
+            "GROUP BY s.grower.id")
+    List<StatsAggregateDTO> aggregateStatsByGrower();
+
+    @Query("SELECT new com.poultry.backend.dtos.StatsAggregateDTO(s.location.id, COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s " +
+            "WHERE s.location.id IN :locationIds " +
+            "GROUP BY s.location.id")
+    List<StatsAggregateDTO> aggregateStatsByLocationIn(List<Long> locationIds);
+
+    @Query("SELECT new com.poultry.backend.dtos.StatsAggregateDTO(s.grower.id, COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s " +
+            "WHERE s.grower IS NOT NULL AND s.location.id IN :locationIds " +
+            "GROUP BY s.grower.id")
+    List<StatsAggregateDTO> aggregateStatsByGrowerForLocations(List<Long> locationIds);
+
+    @Query("SELECT new com.poultry.backend.dtos.TrendAggregateDTO(p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek, " +
+            "SUM(CASE WHEN s.netQuantity IS NOT NULL AND s.netQuantity <> 0 THEN s.netQuantity ELSE COALESCE(s.quantity, 0) END), COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s JOIN s.location l JOIN l.partner p " +
+            "WHERE p.id IN :partnerIds " +
+            "AND COALESCE(s.processingDate, s.deliveryDate) BETWEEN :from AND :to " +
+            "AND s.processingWeek BETWEEN 1 AND 53 " +
+            "GROUP BY p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek")
+    List<TrendAggregateDTO> aggregateTrendByPartners(List<Long> partnerIds, LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.poultry.backend.dtos.TrendAggregateDTO(p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek, " +
+            "SUM(CASE WHEN s.netQuantity IS NOT NULL AND s.netQuantity <> 0 THEN s.netQuantity ELSE COALESCE(s.quantity, 0) END), COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s JOIN s.location l JOIN l.partner p " +
+            "WHERE l.id = :locationId " +
+            "AND COALESCE(s.processingDate, s.deliveryDate) BETWEEN :from AND :to " +
+            "AND s.processingWeek BETWEEN 1 AND 53 " +
+            "GROUP BY p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek")
+    List<TrendAggregateDTO> aggregateTrendByLocation(Long locationId, LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.poultry.backend.dtos.TrendAggregateDTO(p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek, " +
+            "SUM(CASE WHEN s.netQuantity IS NOT NULL AND s.netQuantity <> 0 THEN s.netQuantity ELSE COALESCE(s.quantity, 0) END), COUNT(s), " +
+            "SUM(s.liverWeight), COUNT(s.liverWeight), SUM(s.kosherPercent), COUNT(s.kosherPercent), " +
+            "SUM(s.fatteningRate), COUNT(s.fatteningRate), SUM(s.mortalityRate), COUNT(s.mortalityRate)) " +
+            "FROM Shipment s JOIN s.location l JOIN l.partner p " +
+            "WHERE s.grower.id = :growerId " +
+            "AND COALESCE(s.processingDate, s.deliveryDate) BETWEEN :from AND :to " +
+            "AND s.processingWeek BETWEEN 1 AND 53 " +
+            "GROUP BY p.id, p.name, YEAR(COALESCE(s.processingDate, s.deliveryDate)), s.processingWeek")
+    List<TrendAggregateDTO> aggregateTrendByGrower(Long growerId, LocalDate from, LocalDate to);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.poultry.backend.dtos.ShipmentExportRowDTO(g.name, g.city, p.id, p.name, l.city, l.county, " +
+            "s.deliveryCode, s.deliveryDate, s.processingDate, s.processingWeek, s.quantity, s.totalWeight, " +
+            "s.mortalityCount, s.transportMortality, s.transportMortalityKg, s.netWeight, s.kosherPercent, " +
+            "s.liverWeight, s.fatteningRate, s.fatteningDays) " +
+            "FROM Shipment s JOIN s.location l JOIN l.partner p LEFT JOIN s.grower g " +
+            "WHERE p.id IN :partnerIds ORDER BY s.processingDate DESC")
+    Stream<ShipmentExportRowDTO> streamExportRows(List<Long> partnerIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.poultry.backend.dtos.ShipmentColumnRowDTO(p.id, l.id, g.id, pg.id, s.processingDate, s.deliveryDate, " +
+            "s.processingWeek, s.quantity, s.netWeight, s.liverWeight, s.kosherPercent, s.fatteningRate, s.mortalityRate) " +
+            "FROM Shipment s JOIN s.location l JOIN l.partner p LEFT JOIN s.grower g LEFT JOIN p.group pg")
+    Stream<ShipmentColumnRowDTO> streamColumnRows();
 }
\ No newline at end of file
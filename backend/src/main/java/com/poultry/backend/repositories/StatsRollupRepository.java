@@ -0,0 +1,31 @@
+package com.poultry.backend.repositories;
+
+import com.poultry.backend.entities.StatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, StatsRollup.Key> {
+
+    List<StatsRollup> findByScope(StatsRollup.Scope scope);
+
+    @Modifying
+    @Query("DELETE FROM StatsRollup r WHERE r.scope = :scope AND r.entityId IN :entityIds")
+    void deleteByScopeAndEntityIds(StatsRollup.Scope scope, Collection<Long> entityIds);
+
+    @Modifying
+    @Query("UPDATE StatsRollup r SET r.shipmentCount = r.shipmentCount + :shipmentCount, " +
+            "r.sumLiverWeight = r.sumLiverWeight + :sumLiverWeight, r.countLiverWeight = r.countLiverWeight + :countLiverWeight, " +
+            "r.sumKosherPercent = r.sumKosherPercent + :sumKosherPercent, r.countKosherPercent = r.countKosherPercent + :countKosherPercent, " +
+            "r.sumFatteningRate = r.sumFatteningRate + :sumFatteningRate, r.countFatteningRate = r.countFatteningRate + :countFatteningRate, " +
+            "r.sumMortalityRate = r.sumMortalityRate + :sumMortalityRate, r.countMortalityRate = r.countMortalityRate + :countMortalityRate " +
+            "WHERE r.scope = :scope AND r.entityId = :entityId")
+    int addToRollup(StatsRollup.Scope scope, Long entityId, long shipmentCount,
+                    double sumLiverWeight, long countLiverWeight, double sumKosherPercent, long countKosherPercent,
+                    double sumFatteningRate, long countFatteningRate, double sumMortalityRate, long countMortalityRate);
+}
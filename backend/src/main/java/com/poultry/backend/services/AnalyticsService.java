@@ -2,80 +2,158 @@ package com.poultry.backend.services;
 
 import com.poultry.backend.dtos.LeaderboardDTO;
 import com.poultry.backend.dtos.PartnerStatsDTO;
-import com.poultry.backend.entities.Grower;
-import com.poultry.backend.entities.Partner;
+import com.poultry.backend.dtos.PartnerSummaryDTO;
+import com.poultry.backend.dtos.ShipmentQueryDTO;
+import com.poultry.backend.dtos.ShipmentQueryResultDTO;
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import com.poultry.backend.dtos.TrendAggregateDTO;
+import com.poultry.backend.dtos.TrendSeriesDTO;
 import com.poultry.backend.entities.PartnerGroup;
-import com.poultry.backend.entities.Shipment;
+import com.poultry.backend.entities.StatsRollup;
 import com.poultry.backend.repositories.GrowerRepository;
 import com.poultry.backend.repositories.PartnerGroupRepository;
+import com.poultry.backend.repositories.PartnerLocationRepository;
 import com.poultry.backend.repositories.PartnerRepository;
 import com.poultry.backend.repositories.ShipmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
+    private static final int WEEKS_PER_YEAR = 53;
+    /**
+     * Ennél kevesebb bejegyzést már nem bontunk tovább; a pontszám számítása olcsó, a feladatok szétosztása nem.
+     */
+    private static final int LEADERBOARD_BATCH_SIZE = 64;
+
     private final ShipmentRepository shipmentRepository;
     private final PartnerRepository partnerRepository;
+    private final PartnerLocationRepository partnerLocationRepository;
     private final PartnerGroupRepository groupRepository;
     private final GrowerRepository growerRepository;
+    private final StatsRollupService statsRollupService;
+    private final ColumnarShipmentStore columnarShipmentStore;
+
+    private ForkJoinPool leaderboardPool;
+
+    @PostConstruct
+    void startLeaderboardPool() {
+        leaderboardPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stopLeaderboardPool() {
+        leaderboardPool.shutdownNow();
+    }
 
     public List<LeaderboardDTO> getLeaderboard() {
-        List<Shipment> allShipments = shipmentRepository.findAll();
-        Map<Long, List<Shipment>> shipmentsByPartnerId = allShipments.stream()
-                .filter(s -> s.getLocation() != null && s.getLocation().getPartner() != null)
-                .collect(Collectors.groupingBy(s -> s.getLocation().getPartner().getId()));
-
-        List<LeaderboardDTO> finalLeaderboard = new ArrayList<>();
-        List<Partner> allPartners = partnerRepository.findAll();
-        Set<Long> processedPartnerIds = new HashSet<>();
-
-        List<PartnerGroup> groups = groupRepository.findAll();
-        for (PartnerGroup group : groups) {
-            List<Shipment> groupShipments = new ArrayList<>();
-            List<LeaderboardDTO> memberDTOs = new ArrayList<>();
-
-            for (Partner member : group.getMembers()) {
-                processedPartnerIds.add(member.getId());
-                // Itt már jó a map, mert location.partner.id alapján készült
-                List<Shipment> memberShipList = shipmentsByPartnerId.getOrDefault(member.getId(), Collections.emptyList());
-                groupShipments.addAll(memberShipList);
-
-                LeaderboardDTO memberDTO = createDTO(member.getId(), member.getName(), memberShipList, false, null, null);
-                if (memberDTO == null) {
-                    memberDTO = new LeaderboardDTO(member.getId(), member.getName(), 0.0, 0.0, 0.0, 0.0, false, null, null);
-                }
-                memberDTOs.add(memberDTO);
-            }
+        Map<Long, StatsAggregateDTO> statsByPartnerId = statsRollupService.findAll(StatsRollup.Scope.PARTNER).stream()
+                .collect(Collectors.toMap(StatsAggregateDTO::getId, a -> a));
 
-            LeaderboardDTO groupDTO = createDTO(group.getId()* -1, group.getName(), groupShipments, true, group.getColor(), memberDTOs);
-            if (groupDTO != null) {
-                finalLeaderboard.add(groupDTO);
+        List<PartnerSummaryDTO> allPartners = partnerRepository.findAllSummaries();
+        Map<Long, List<PartnerSummaryDTO>> membersByGroupId = allPartners.stream()
+                .filter(p -> p.getGroupId() != null)
+                .collect(Collectors.groupingBy(PartnerSummaryDTO::getGroupId));
+
+        // 1. CSOPORTOK, 2. EGYÉNI PARTNEREK - ebben a sorrendben kerülnek a listába
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (PartnerGroup group : groupRepository.findAll()) {
+            entries.add(new LeaderboardEntry(group, membersByGroupId.getOrDefault(group.getId(), Collections.emptyList())));
+        }
+        for (PartnerSummaryDTO partner : allPartners) {
+            if (partner.getGroupId() == null) {
+                entries.add(new LeaderboardEntry(null, List.of(partner)));
             }
         }
 
-        // 2. EGYÉNI PARTNEREK
-        for (Partner partner : allPartners) {
-            if (!processedPartnerIds.contains(partner.getId())) {
-                List<Shipment> partnerShipments = shipmentsByPartnerId.getOrDefault(partner.getId(), Collections.emptyList());
-                LeaderboardDTO dto = createDTO(partner.getId(), partner.getName(), partnerShipments, false, null, null);
+        return leaderboardPool.invoke(new LeaderboardTask(entries, 0, entries.size(), statsByPartnerId));
+    }
+
+    /**
+     * Egy csoport a tagjaival, vagy (group == null esetén) egyetlen csoporton kívüli partner.
+     */
+    private record LeaderboardEntry(PartnerGroup group, List<PartnerSummaryDTO> partners) {}
+
+    /**
+     * A ranglista bejegyzéseit felezve osztja szét a fork-join szálak között; a részeredmények
+     * az eredeti sorrendben fűződnek össze, így a lista ugyanaz, mint soros számításnál.
+     */
+    private class LeaderboardTask extends RecursiveTask<List<LeaderboardDTO>> {
+        private final List<LeaderboardEntry> entries;
+        private final int from;
+        private final int to;
+        private final Map<Long, StatsAggregateDTO> statsByPartnerId;
+
+        LeaderboardTask(List<LeaderboardEntry> entries, int from, int to, Map<Long, StatsAggregateDTO> statsByPartnerId) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.statsByPartnerId = statsByPartnerId;
+        }
 
-                if (dto != null) {
-                    finalLeaderboard.add(dto);
+        @Override
+        protected List<LeaderboardDTO> compute() {
+            if (to - from <= LEADERBOARD_BATCH_SIZE) {
+                List<LeaderboardDTO> result = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    LeaderboardDTO dto = score(entries.get(i), statsByPartnerId);
+                    if (dto != null) {
+                        result.add(dto);
+                    }
                 }
+                return result;
             }
-        }
 
-        return finalLeaderboard;
+            int middle = (from + to) >>> 1;
+            LeaderboardTask left = new LeaderboardTask(entries, from, middle, statsByPartnerId);
+            left.fork();
+            List<LeaderboardDTO> right = new LeaderboardTask(entries, middle, to, statsByPartnerId).compute();
+            List<LeaderboardDTO> result = left.join();
+            result.addAll(right);
+            return result;
+        }
     }
 
-    private LeaderboardDTO createDTO(Long id, String name, List<Shipment> shipments, boolean isGroup, String color, List<LeaderboardDTO> members) {
-        PartnerStatsDTO stats = calculateStats(shipments);
+    /**
+     * A csoport összesítése a tagok részösszegeinek összevonásából készül, nem a szállítmányokból.
+     */
+    private LeaderboardDTO score(LeaderboardEntry entry, Map<Long, StatsAggregateDTO> statsByPartnerId) {
+        if (entry.group() == null) {
+            PartnerSummaryDTO partner = entry.partners().get(0);
+            StatsAggregateDTO partnerTotals = statsByPartnerId.getOrDefault(partner.getId(), new StatsAggregateDTO());
+            return createDTO(partner.getId(), partner.getName(), toStats(partnerTotals), false, null, null);
+        }
+
+        PartnerGroup group = entry.group();
+        StatsAggregateDTO groupTotals = new StatsAggregateDTO();
+        List<LeaderboardDTO> memberDTOs = new ArrayList<>();
 
+        for (PartnerSummaryDTO member : entry.partners()) {
+            StatsAggregateDTO memberTotals = statsByPartnerId.getOrDefault(member.getId(), new StatsAggregateDTO());
+            groupTotals.merge(memberTotals);
+
+            LeaderboardDTO memberDTO = createDTO(member.getId(), member.getName(), toStats(memberTotals), false, null, null);
+            if (memberDTO == null) {
+                memberDTO = new LeaderboardDTO(member.getId(), member.getName(), 0.0, 0.0, 0.0, 0.0, false, null, null);
+            }
+            memberDTOs.add(memberDTO);
+        }
+
+        return createDTO(group.getId()* -1, group.getName(), toStats(groupTotals), true, group.getColor(), memberDTOs);
+    }
+
+    private LeaderboardDTO createDTO(Long id, String name, PartnerStatsDTO stats, boolean isGroup, String color, List<LeaderboardDTO> members) {
         boolean hasData = stats.getAvgLiverWeight() > 0 || stats.getAvgKosherPercent() > 0;
         boolean hasMembers = members != null && !members.isEmpty();
 
@@ -108,62 +186,170 @@ public class AnalyticsService {
         );
     }
 
-    private PartnerStatsDTO calculateStats(List<Shipment> list) {
-        if (list == null || list.isEmpty()) return new PartnerStatsDTO(0.0, 0.0, 0.0, 0.0);
-
-        double sumLiver = 0; int countLiver = 0;
-        double sumKosher = 0; int countKosher = 0;
-        double sumFattening = 0; int countFattening = 0;
-        double sumMortalityRate = 0; int countMortalityRate = 0;
-
-        for (Shipment shipment : list) {
-            if (shipment.getLiverWeight() != null ) {
-                sumLiver += shipment.getLiverWeight(); countLiver++;
-            }
-            if (shipment.getKosherPercent() != null) {
-                sumKosher += shipment.getKosherPercent(); countKosher++;
-            }
-            if (shipment.getFatteningRate() != null) {
-                sumFattening += shipment.getFatteningRate(); countFattening++;
-            }
-            if (shipment.getMortalityRate() != null) {
-                sumMortalityRate += shipment.getMortalityRate(); countMortalityRate++;
-            }
-        }
-
+    /**
+     * Átlagok az összegekből és a nem üres értékek számából, két tizedesre kerekítve.
+     */
+    private PartnerStatsDTO toStats(StatsAggregateDTO totals) {
         return new PartnerStatsDTO(
-                round(countLiver > 0 ? sumLiver / countLiver : 0),
-                round(countKosher > 0 ? sumKosher / countKosher : 0),
-                round(countFattening > 0 ? sumFattening / countFattening : 0),
-                round(countMortalityRate > 0 ? sumMortalityRate / countMortalityRate : 0)
+                round(average(totals.getSumLiverWeight(), totals.getCountLiverWeight())),
+                round(average(totals.getSumKosherPercent(), totals.getCountKosherPercent())),
+                round(average(totals.getSumFatteningRate(), totals.getCountFatteningRate())),
+                round(average(totals.getSumMortalityRate(), totals.getCountMortalityRate()))
         );
     }
 
+    private double average(double sum, long count) {
+        return count > 0 ? sum / count : 0;
+    }
+
     public PartnerStatsDTO getPartnerStats(Long partnerId) {
-        List<Shipment> history = shipmentRepository.findByLocationPartnerIdOrderByProcessingDateDesc(partnerId);
-        if (history.isEmpty()) return new PartnerStatsDTO(0.0, 0.0, 0.0, 0.0);
-        return calculateStats(history);
+        return toStats(statsRollupService.find(StatsRollup.Scope.PARTNER, partnerId).orElseGet(StatsAggregateDTO::new));
     }
 
     public PartnerStatsDTO getGrowerStats(Long growerId) {
-        List<Shipment> shipments = shipmentRepository.findByGrowerIdOrderByProcessingDateDesc(growerId);
-        return calculateStats(shipments);
+        return toStats(statsRollupService.find(StatsRollup.Scope.GROWER, growerId).orElseGet(StatsAggregateDTO::new));
     }
 
     public PartnerStatsDTO getLocationStats(Long locationId) {
-        List<Shipment> history = shipmentRepository.findByLocationIdOrderByProcessingDateDesc(locationId);
-        if (history.isEmpty()) return new PartnerStatsDTO(0.0, 0.0, 0.0, 0.0);
-        return calculateStats(history);
+        return toStats(statsRollupService.find(StatsRollup.Scope.LOCATION, locationId).orElseGet(StatsAggregateDTO::new));
     }
 
     public Map<Long, PartnerStatsDTO> getAllPartnerStats() {
-        List<Shipment> all = shipmentRepository.findAll();
-        Map<Long, List<Shipment>> byId = all.stream()
-                .filter(s -> s.getLocation() != null && s.getLocation().getPartner() != null)
-                .collect(Collectors.groupingBy(s -> s.getLocation().getPartner().getId()));
+        return statsRollupService.findAll(StatsRollup.Scope.PARTNER).stream()
+                .filter(totals -> totals.getShipmentCount() > 0)
+                .collect(Collectors.toMap(StatsAggregateDTO::getId, this::toStats));
+    }
+
+    public List<TrendSeriesDTO> getPartnerTrend(Long partnerId, Integer fromYear, Integer toYear) {
+        int[] years = yearRange(fromYear, toYear);
+        if (!partnerRepository.existsById(partnerId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Partner nem található!");
+        }
+        return toSeries(shipmentRepository.aggregateTrendByPartners(List.of(partnerId), firstDay(years), lastDay(years)));
+    }
+
+    public List<TrendSeriesDTO> getGroupTrend(Long groupId, Integer fromYear, Integer toYear) {
+        int[] years = yearRange(fromYear, toYear);
+        if (!groupRepository.existsById(groupId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Csoport nem található!");
+        }
+        List<Long> partnerIds = partnerRepository.findIdsByGroupId(groupId);
+        if (partnerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return toSeries(shipmentRepository.aggregateTrendByPartners(partnerIds, firstDay(years), lastDay(years)));
+    }
+
+    public List<TrendSeriesDTO> getLocationTrend(Long locationId, Integer fromYear, Integer toYear) {
+        int[] years = yearRange(fromYear, toYear);
+        if (!partnerLocationRepository.existsById(locationId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Telephely nem található!");
+        }
+        return toSeries(shipmentRepository.aggregateTrendByLocation(locationId, firstDay(years), lastDay(years)));
+    }
+
+    public List<TrendSeriesDTO> getGrowerTrend(Long growerId, Integer fromYear, Integer toYear) {
+        int[] years = yearRange(fromYear, toYear);
+        if (!growerRepository.existsById(growerId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nevelő nem található!");
+        }
+        return toSeries(shipmentRepository.aggregateTrendByGrower(growerId, firstDay(years), lastDay(years)));
+    }
+
+    /**
+     * Ha nincs megadva év, az aktuális évet vesszük; ha csak az egyik határ van megadva, a másik ugyanaz.
+     */
+    private int[] yearRange(Integer fromYear, Integer toYear) {
+        int from = fromYear != null ? fromYear : (toYear != null ? toYear : LocalDate.now().getYear());
+        int to = toYear != null ? toYear : from;
+        if (from > to) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A kezdő év nem lehet későbbi a záró évnél!");
+        }
+        return new int[]{from, to};
+    }
+
+    private LocalDate firstDay(int[] years) {
+        return LocalDate.of(years[0], 1, 1);
+    }
+
+    private LocalDate lastDay(int[] years) {
+        return LocalDate.of(years[1], 12, 31);
+    }
+
+    /**
+     * Az éves és heti bontású összesítéseket partnerenként és évenként heti tömbökbe rendezi, ugyanúgy,
+     * ahogy a trend grafikon eddig a böngészőben tette.
+     */
+    private List<TrendSeriesDTO> toSeries(List<TrendAggregateDTO> rows) {
+        Map<List<Long>, WeeklyTotals> seriesByKey = new HashMap<>();
+        for (TrendAggregateDTO row : rows) {
+            seriesByKey.computeIfAbsent(List.of((long) row.getYear(), row.getPartnerId()), k -> new WeeklyTotals(row)).add(row);
+        }
+
+        List<TrendSeriesDTO> series = new ArrayList<>();
+        for (WeeklyTotals totals : seriesByKey.values()) {
+            long[] shipmentCount = new long[WEEKS_PER_YEAR];
+            double[] liver = new double[WEEKS_PER_YEAR];
+            double[] kosher = new double[WEEKS_PER_YEAR];
+            double[] fattening = new double[WEEKS_PER_YEAR];
+            double[] mortality = new double[WEEKS_PER_YEAR];
+            for (int i = 0; i < WEEKS_PER_YEAR; i++) {
+                StatsAggregateDTO week = totals.weeks[i];
+                if (week == null) continue;
+                PartnerStatsDTO stats = toStats(week);
+                shipmentCount[i] = week.getShipmentCount();
+                liver[i] = stats.getAvgLiverWeight();
+                kosher[i] = stats.getAvgKosherPercent();
+                fattening[i] = stats.getAvgFatteningRate();
+                mortality[i] = stats.getAvgMortalityRate();
+            }
+            series.add(new TrendSeriesDTO(totals.partnerId, totals.partnerName, totals.year,
+                    totals.quantity, shipmentCount, liver, kosher, fattening, mortality));
+        }
+
+        series.sort(Comparator.comparingInt(TrendSeriesDTO::getYear)
+                .thenComparing(TrendSeriesDTO::getPartnerName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return series;
+    }
+
+    private static class WeeklyTotals {
+        private final Long partnerId;
+        private final String partnerName;
+        private final int year;
+        private final long[] quantity = new long[WEEKS_PER_YEAR];
+        private final StatsAggregateDTO[] weeks = new StatsAggregateDTO[WEEKS_PER_YEAR];
+
+        WeeklyTotals(TrendAggregateDTO first) {
+            this.partnerId = first.getPartnerId();
+            this.partnerName = first.getPartnerName();
+            this.year = first.getYear();
+        }
+
+        void add(TrendAggregateDTO row) {
+            int week = row.getWeek() - 1;
+            quantity[week] = row.getQuantity();
+            weeks[week] = row.getTotals();
+        }
+    }
+
+    /**
+     * Tetszőleges szűrés és csoportosítás az oszlopos pillanatképen, adatbázis-lekérdezés nélkül.
+     */
+    public List<ShipmentQueryResultDTO> query(ShipmentQueryDTO query) {
+        if (query.getFromDate() != null && query.getToDate() != null && query.getFromDate().isAfter(query.getToDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A kezdő dátum nem lehet későbbi a záró dátumnál!");
+        }
+        ColumnarShipments.Filter filter = new ColumnarShipments.Filter(query.getPartnerIds(), query.getGroupIds(),
+                query.getLocationIds(), query.getGrowerIds(), query.getFromDate(), query.getToDate());
+        ColumnarShipments.Dimension groupBy = query.getGroupBy() != null ? query.getGroupBy() : ColumnarShipments.Dimension.TOTAL;
+
+        return columnarShipmentStore.snapshot().aggregate(filter, groupBy).stream()
+                .map(a -> new ShipmentQueryResultDTO(a.key(), a.totals().getShipmentCount(), a.quantity(), round(a.netWeight()), toStats(a.totals())))
+                .toList();
+    }
 
-        return byId.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> calculateStats(e.getValue())));
+    public void rebuildRollups() {
+        statsRollupService.rebuild();
     }
 
     private double round(double value) {
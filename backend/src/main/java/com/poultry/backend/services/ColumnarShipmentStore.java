@@ -0,0 +1,108 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ShipmentColumnRowDTO;
+import com.poultry.backend.repositories.ShipmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Az oszlopos szállítmány-pillanatkép ({@link ColumnarShipments}) tárolója. Induláskor betölti, adatváltozáskor
+ * ({@link DataChangedEvent}) rövid késleltetéssel háttérszálon újratölti; az olvasók közben az előző pillanatképet látják.
+ * Minden új pillanatképről {@link ColumnarShipmentsLoadedEvent} értesít.
+ */
+@Service
+@RequiredArgsConstructor
+public class ColumnarShipmentStore {
+
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final ShipmentRepository shipmentRepository;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<ColumnarShipments> snapshot = new AtomicReference<>();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    private TransactionTemplate readOnlyTransaction;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "shipment-columns-reload");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public ColumnarShipments snapshot() {
+        ColumnarShipments current = snapshot.get();
+        return current != null ? current : load();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        scheduleReload();
+    }
+
+    @EventListener
+    void onDataChanged(DataChangedEvent event) {
+        scheduleReload();
+    }
+
+    private void scheduleReload() {
+        if (reloadScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::reload, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reload() {
+        reloadScheduled.set(false);
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // sikertelen betöltésnél az előző pillanatkép marad, a következő változás újra próbálja
+        }
+    }
+
+    /**
+     * A verziót a betöltés előtt olvassuk ki, így a közben érkező változás biztosan újabb betöltést indít.
+     */
+    private synchronized ColumnarShipments load() {
+        long version = dataVersionService.current();
+        ColumnarShipments current = snapshot.get();
+        if (current != null && current.getVersion() == version) return current;
+
+        ColumnarShipments loaded = readOnlyTransaction.execute(status -> {
+            ColumnarShipments.Builder builder = ColumnarShipments.builder(version);
+            try (Stream<ShipmentColumnRowDTO> rows = shipmentRepository.streamColumnRows()) {
+                rows.forEach(builder::add);
+            }
+            return builder.build();
+        });
+        snapshot.set(loaded);
+        eventPublisher.publishEvent(new ColumnarShipmentsLoadedEvent(loaded));
+        return loaded;
+    }
+}
@@ -0,0 +1,380 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ShipmentColumnRowDTO;
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import com.poultry.backend.utils.KllSketch;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A szállítmányok csak olvasható, oszlopos pillanatképe. Minden mező külön primitív tömbben van:
+ * a hiányzó tizedes érték NaN, a hiányzó darabszám 0, a dátumok epoch-napok ({@link #NO_DATE}, ha nincs),
+ * a partner, telephely, nevelő és csoport azonosítók pedig szótárkódok ({@link #NONE}, ha nincs).
+ * A szűrés és az összesítés így egyetlen végigolvasás a tömbökön, objektumok nélkül.
+ */
+public class ColumnarShipments {
+
+    public static final int NONE = -1;
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    public enum Dimension { TOTAL, PARTNER, LOCATION, GROWER, GROUP, YEAR, WEEK }
+
+    public enum Metric { LIVER_WEIGHT, KOSHER_PERCENT, FATTENING_RATE, MORTALITY_RATE }
+
+    /**
+     * Szűrőfeltételek; a null vagy üres lista nem szűr, a dátumok az {@link #day} oszlopra vonatkoznak.
+     */
+    public record Filter(Collection<Long> partnerIds, Collection<Long> groupIds, Collection<Long> locationIds,
+                         Collection<Long> growerIds, LocalDate from, LocalDate to) {
+        public static final Filter ALL = new Filter(null, null, null, null, null, null);
+    }
+
+    /**
+     * Egy csoportosítási kulcs összegei; a kulcs a dimenziótól függően azonosító, év vagy hét.
+     */
+    public record Aggregate(Long key, StatsAggregateDTO totals, long quantity, double netWeight) {}
+
+    private final long version;
+    private final int size;
+
+    private final IdDictionary partners;
+    private final IdDictionary locations;
+    private final IdDictionary growers;
+    private final IdDictionary groups;
+
+    private final int[] partner;
+    private final int[] location;
+    private final int[] grower;
+    private final int[] group;
+    private final int[] processingDay;
+    private final int[] deliveryDay;
+    /** Feldolgozás napja, ennek hiányában a szállításé. */
+    private final int[] day;
+    private final int[] year;
+    private final int[] processingWeek;
+    private final int[] quantity;
+    private final double[] netWeight;
+    private final double[] liverWeight;
+    private final double[] kosherPercent;
+    private final double[] fatteningRate;
+    private final double[] mortalityRate;
+
+    private final int minYear;
+    private final int maxYear;
+
+    private ColumnarShipments(Builder b) {
+        this.version = b.version;
+        this.size = b.size;
+        this.partners = b.partners;
+        this.locations = b.locations;
+        this.growers = b.growers;
+        this.groups = b.groups;
+        this.partner = Arrays.copyOf(b.partner, b.size);
+        this.location = Arrays.copyOf(b.location, b.size);
+        this.grower = Arrays.copyOf(b.grower, b.size);
+        this.group = Arrays.copyOf(b.group, b.size);
+        this.processingDay = Arrays.copyOf(b.processingDay, b.size);
+        this.deliveryDay = Arrays.copyOf(b.deliveryDay, b.size);
+        this.processingWeek = Arrays.copyOf(b.processingWeek, b.size);
+        this.quantity = Arrays.copyOf(b.quantity, b.size);
+        this.netWeight = Arrays.copyOf(b.netWeight, b.size);
+        this.liverWeight = Arrays.copyOf(b.liverWeight, b.size);
+        this.kosherPercent = Arrays.copyOf(b.kosherPercent, b.size);
+        this.fatteningRate = Arrays.copyOf(b.fatteningRate, b.size);
+        this.mortalityRate = Arrays.copyOf(b.mortalityRate, b.size);
+
+        this.day = new int[size];
+        this.year = new int[size];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            day[i] = processingDay[i] != NO_DATE ? processingDay[i] : deliveryDay[i];
+            year[i] = day[i] != NO_DATE ? LocalDate.ofEpochDay(day[i]).getYear() : NONE;
+            if (year[i] != NONE) {
+                min = Math.min(min, year[i]);
+                max = Math.max(max, year[i]);
+            }
+        }
+        this.minYear = min;
+        this.maxYear = max;
+    }
+
+    public static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A szűrőnek megfelelő sorok összegei a megadott dimenzió szerint, a kulcsok növekvő sorrendjében.
+     * A dimenzió nélküli (nevelő, csoport, dátum vagy hét hiányzik) sorok kimaradnak a csoportosításból.
+     */
+    public List<Aggregate> aggregate(Filter filter, Dimension groupBy) {
+        boolean[] partnerMask = partners.mask(filter.partnerIds());
+        boolean[] groupMask = groups.mask(filter.groupIds());
+        boolean[] locationMask = locations.mask(filter.locationIds());
+        boolean[] growerMask = growers.mask(filter.growerIds());
+        int fromDay = filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE;
+        int toDay = filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE;
+        boolean dateFilter = filter.from() != null || filter.to() != null;
+
+        int buckets = bucketCount(groupBy);
+        long[] count = new long[buckets];
+        long[] quantitySum = new long[buckets];
+        double[] netWeightSum = new double[buckets];
+        double[] liverSum = new double[buckets];
+        long[] liverCount = new long[buckets];
+        double[] kosherSum = new double[buckets];
+        long[] kosherCount = new long[buckets];
+        double[] fatteningSum = new double[buckets];
+        long[] fatteningCount = new long[buckets];
+        double[] mortalitySum = new double[buckets];
+        long[] mortalityCount = new long[buckets];
+
+        for (int i = 0; i < size; i++) {
+            if (partnerMask != null && !partnerMask[partner[i]]) continue;
+            if (locationMask != null && !locationMask[location[i]]) continue;
+            if (groupMask != null && (group[i] == NONE || !groupMask[group[i]])) continue;
+            if (growerMask != null && (grower[i] == NONE || !growerMask[grower[i]])) continue;
+            if (dateFilter && (day[i] == NO_DATE || day[i] < fromDay || day[i] > toDay)) continue;
+
+            int bucket = bucket(groupBy, i);
+            if (bucket < 0) continue;
+
+            count[bucket]++;
+            quantitySum[bucket] += quantity[i];
+            if (!Double.isNaN(netWeight[i])) netWeightSum[bucket] += netWeight[i];
+            if (!Double.isNaN(liverWeight[i])) {
+                liverSum[bucket] += liverWeight[i];
+                liverCount[bucket]++;
+            }
+            if (!Double.isNaN(kosherPercent[i])) {
+                kosherSum[bucket] += kosherPercent[i];
+                kosherCount[bucket]++;
+            }
+            if (!Double.isNaN(fatteningRate[i])) {
+                fatteningSum[bucket] += fatteningRate[i];
+                fatteningCount[bucket]++;
+            }
+            if (!Double.isNaN(mortalityRate[i])) {
+                mortalitySum[bucket] += mortalityRate[i];
+                mortalityCount[bucket]++;
+            }
+        }
+
+        List<Aggregate> result = new ArrayList<>();
+        for (int b = 0; b < buckets; b++) {
+            if (count[b] == 0) continue;
+            Long key = bucketKey(groupBy, b);
+            StatsAggregateDTO totals = new StatsAggregateDTO(key, count[b], liverSum[b], liverCount[b], kosherSum[b], kosherCount[b],
+                    fatteningSum[b], fatteningCount[b], mortalitySum[b], mortalityCount[b]);
+            result.add(new Aggregate(key, totals, quantitySum[b], netWeightSum[b]));
+        }
+        result.sort(Comparator.comparing(Aggregate::key, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    /**
+     * Egy mutató kvantilis-vázlata a dimenzió minden kulcsára, egyetlen végigolvasással; az üres kulcsok kimaradnak.
+     */
+    public Map<Long, KllSketch> sketches(Dimension groupBy, Metric metric, int k) {
+        double[] values = column(metric);
+        KllSketch[] sketches = new KllSketch[bucketCount(groupBy)];
+        for (int i = 0; i < size; i++) {
+            if (Double.isNaN(values[i])) continue;
+            int bucket = bucket(groupBy, i);
+            if (bucket < 0) continue;
+            if (sketches[bucket] == null) {
+                sketches[bucket] = new KllSketch(k);
+            }
+            sketches[bucket].update(values[i]);
+        }
+
+        Map<Long, KllSketch> result = new HashMap<>();
+        for (int b = 0; b < sketches.length; b++) {
+            if (sketches[b] != null) {
+                result.put(bucketKey(groupBy, b), sketches[b]);
+            }
+        }
+        return result;
+    }
+
+    private double[] column(Metric metric) {
+        return switch (metric) {
+            case LIVER_WEIGHT -> liverWeight;
+            case KOSHER_PERCENT -> kosherPercent;
+            case FATTENING_RATE -> fatteningRate;
+            case MORTALITY_RATE -> mortalityRate;
+        };
+    }
+
+    private int bucketCount(Dimension groupBy) {
+        return switch (groupBy) {
+            case TOTAL -> 1;
+            case PARTNER -> partners.size();
+            case LOCATION -> locations.size();
+            case GROWER -> growers.size();
+            case GROUP -> groups.size();
+            case YEAR -> minYear <= maxYear ? maxYear - minYear + 1 : 0;
+            case WEEK -> 53;
+        };
+    }
+
+    private int bucket(Dimension groupBy, int row) {
+        return switch (groupBy) {
+            case TOTAL -> 0;
+            case PARTNER -> partner[row];
+            case LOCATION -> location[row];
+            case GROWER -> grower[row];
+            case GROUP -> group[row];
+            case YEAR -> year[row] != NONE ? year[row] - minYear : NONE;
+            case WEEK -> processingWeek[row] >= 1 && processingWeek[row] <= 53 ? processingWeek[row] - 1 : NONE;
+        };
+    }
+
+    private Long bucketKey(Dimension groupBy, int bucket) {
+        return switch (groupBy) {
+            case TOTAL -> null;
+            case PARTNER -> partners.id(bucket);
+            case LOCATION -> locations.id(bucket);
+            case GROWER -> growers.id(bucket);
+            case GROUP -> groups.id(bucket);
+            case YEAR -> (long) (minYear + bucket);
+            case WEEK -> (long) (bucket + 1);
+        };
+    }
+
+    /**
+     * Azonosító és tömör, 0-tól induló kód közötti kétirányú megfeleltetés.
+     */
+    static class IdDictionary {
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private long[] ids = new long[16];
+
+        int encode(Long id) {
+            if (id == null) return NONE;
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = codes.size();
+                if (code == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+                ids[code] = id;
+                codes.put(id, code);
+            }
+            return code;
+        }
+
+        int code(Long id) {
+            return codes.getOrDefault(id, NONE);
+        }
+
+        long id(int code) {
+            return ids[code];
+        }
+
+        int size() {
+            return codes.size();
+        }
+
+        /**
+         * Kódonkénti igaz/hamis tömb a megadott azonosítókra, vagy null, ha nincs szűrés.
+         */
+        boolean[] mask(Collection<Long> filterIds) {
+            if (filterIds == null || filterIds.isEmpty()) return null;
+            boolean[] mask = new boolean[size()];
+            for (Long id : filterIds) {
+                int code = code(id);
+                if (code != NONE) mask[code] = true;
+            }
+            return mask;
+        }
+    }
+
+    public static class Builder {
+        private final long version;
+        private int size;
+
+        private final IdDictionary partners = new IdDictionary();
+        private final IdDictionary locations = new IdDictionary();
+        private final IdDictionary growers = new IdDictionary();
+        private final IdDictionary groups = new IdDictionary();
+
+        private int[] partner = new int[1024];
+        private int[] location = new int[1024];
+        private int[] grower = new int[1024];
+        private int[] group = new int[1024];
+        private int[] processingDay = new int[1024];
+        private int[] deliveryDay = new int[1024];
+        private int[] processingWeek = new int[1024];
+        private int[] quantity = new int[1024];
+        private double[] netWeight = new double[1024];
+        private double[] liverWeight = new double[1024];
+        private double[] kosherPercent = new double[1024];
+        private double[] fatteningRate = new double[1024];
+        private double[] mortalityRate = new double[1024];
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        public Builder add(ShipmentColumnRowDTO row) {
+            if (size == partner.length) grow();
+            partner[size] = partners.encode(row.getPartnerId());
+            location[size] = locations.encode(row.getLocationId());
+            grower[size] = growers.encode(row.getGrowerId());
+            group[size] = groups.encode(row.getGroupId());
+            processingDay[size] = epochDay(row.getProcessingDate());
+            deliveryDay[size] = epochDay(row.getDeliveryDate());
+            processingWeek[size] = row.getProcessingWeek() != null ? row.getProcessingWeek() : 0;
+            quantity[size] = row.getQuantity() != null ? row.getQuantity() : 0;
+            netWeight[size] = orNaN(row.getNetWeight());
+            liverWeight[size] = orNaN(row.getLiverWeight());
+            kosherPercent[size] = orNaN(row.getKosherPercent());
+            fatteningRate[size] = orNaN(row.getFatteningRate());
+            mortalityRate[size] = orNaN(row.getMortalityRate());
+            size++;
+            return this;
+        }
+
+        public ColumnarShipments build() {
+            return new ColumnarShipments(this);
+        }
+
+        private void grow() {
+            int capacity = partner.length * 2;
+            partner = Arrays.copyOf(partner, capacity);
+            location = Arrays.copyOf(location, capacity);
+            grower = Arrays.copyOf(grower, capacity);
+            group = Arrays.copyOf(group, capacity);
+            processingDay = Arrays.copyOf(processingDay, capacity);
+            deliveryDay = Arrays.copyOf(deliveryDay, capacity);
+            processingWeek = Arrays.copyOf(processingWeek, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            netWeight = Arrays.copyOf(netWeight, capacity);
+            liverWeight = Arrays.copyOf(liverWeight, capacity);
+            kosherPercent = Arrays.copyOf(kosherPercent, capacity);
+            fatteningRate = Arrays.copyOf(fatteningRate, capacity);
+            mortalityRate = Arrays.copyOf(mortalityRate, capacity);
+        }
+
+        private static int epochDay(LocalDate date) {
+            return date != null ? (int) date.toEpochDay() : NO_DATE;
+        }
+
+        private static double orNaN(Double value) {
+            return value != null ? value : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.poultry.backend.services;
+
+/**
+ * Új oszlopos pillanatkép készült; a belőle származtatott adatok (pl. eloszlások) ekkor frissíthetők.
+ */
+public record ColumnarShipmentsLoadedEvent(ColumnarShipments snapshot) {
+}
@@ -0,0 +1,7 @@
+package com.poultry.backend.services;
+
+/**
+ * Az adatverzió növekedésekor (véglegesített írás után) közzétett esemény.
+ */
+public record DataChangedEvent(long version) {
+}
@@ -0,0 +1,43 @@
+package com.poultry.backend.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Szállítmány-, partner-, csoport- és nevelőadatok változásakor növekvő számláló; az exportok gyorsítótára ehhez
+ * köti az eltárolt fájlokat. Tranzakción belül csak a sikeres véglegesítés után lép, így a még nem
+ * véglegesített adatokból készült export nem kerülhet az új verzió alá; visszagörgetett tranzakció nem léptet. Minden lépésről {@link DataChangedEvent} értesít.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    private void increment() {
+        eventPublisher.publishEvent(new DataChangedEvent(version.incrementAndGet()));
+    }
+}
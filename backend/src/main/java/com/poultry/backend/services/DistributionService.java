@@ -0,0 +1,154 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.DistributionDTO;
+import com.poultry.backend.dtos.PartnerSummaryDTO;
+import com.poultry.backend.dtos.StatsDistributionDTO;
+import com.poultry.backend.repositories.PartnerRepository;
+import com.poultry.backend.utils.KllSketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Partnerenkénti, telephelyenkénti, nevelőnkénti és csoportonkénti kvantilis-vázlatok a mutatókra.
+ * Minden új oszlopos pillanatképnél egyetlen végigolvasással újraépülnek; a csoportok vázlata a tagpartnerekéből
+ * összevonással készül. Egy eloszlás lekérdezése így csak a már kész vázlatot olvassa, az adatmennyiségtől függetlenül.
+ */
+@Service
+@RequiredArgsConstructor
+public class DistributionService {
+
+    private static final int SKETCH_K = 200;
+    private static final int MAX_BINS = 100;
+    private static final ColumnarShipments.Metric[] METRICS = ColumnarShipments.Metric.values();
+
+    private final ColumnarShipmentStore columnarShipmentStore;
+    private final PartnerRepository partnerRepository;
+
+    private record Sketches(long version, Map<ColumnarShipments.Dimension, Map<Long, KllSketch[]>> byDimension) {}
+
+    private final AtomicReference<Sketches> sketches = new AtomicReference<>();
+
+    public StatsDistributionDTO getPartnerDistribution(Long partnerId, int bins) {
+        return distribution(ColumnarShipments.Dimension.PARTNER, partnerId, bins);
+    }
+
+    public StatsDistributionDTO getLocationDistribution(Long locationId, int bins) {
+        return distribution(ColumnarShipments.Dimension.LOCATION, locationId, bins);
+    }
+
+    public StatsDistributionDTO getGrowerDistribution(Long growerId, int bins) {
+        return distribution(ColumnarShipments.Dimension.GROWER, growerId, bins);
+    }
+
+    public StatsDistributionDTO getGroupDistribution(Long groupId, int bins) {
+        return distribution(ColumnarShipments.Dimension.GROUP, groupId, bins);
+    }
+
+    @EventListener
+    void onSnapshotLoaded(ColumnarShipmentsLoadedEvent event) {
+        build(event.snapshot());
+    }
+
+    private StatsDistributionDTO distribution(ColumnarShipments.Dimension dimension, Long id, int bins) {
+        if (bins < 1 || bins > MAX_BINS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A rekeszek száma 1 és " + MAX_BINS + " között lehet!");
+        }
+        KllSketch[] entity = current().byDimension().get(dimension).get(id);
+        return new StatsDistributionDTO(
+                id,
+                toDistribution(entity, ColumnarShipments.Metric.LIVER_WEIGHT, bins),
+                toDistribution(entity, ColumnarShipments.Metric.KOSHER_PERCENT, bins),
+                toDistribution(entity, ColumnarShipments.Metric.FATTENING_RATE, bins),
+                toDistribution(entity, ColumnarShipments.Metric.MORTALITY_RATE, bins)
+        );
+    }
+
+    private Sketches current() {
+        ColumnarShipments snapshot = columnarShipmentStore.snapshot();
+        Sketches current = sketches.get();
+        if (current != null && current.version() == snapshot.getVersion()) return current;
+        return build(snapshot);
+    }
+
+    private synchronized Sketches build(ColumnarShipments snapshot) {
+        Sketches current = sketches.get();
+        if (current != null && current.version() >= snapshot.getVersion()) return current;
+
+        Map<ColumnarShipments.Dimension, Map<Long, KllSketch[]>> byDimension = new EnumMap<>(ColumnarShipments.Dimension.class);
+        for (ColumnarShipments.Dimension dimension : List.of(ColumnarShipments.Dimension.PARTNER,
+                ColumnarShipments.Dimension.LOCATION, ColumnarShipments.Dimension.GROWER)) {
+            byDimension.put(dimension, collect(snapshot, dimension));
+        }
+
+        Map<Long, KllSketch[]> partnerSketches = byDimension.get(ColumnarShipments.Dimension.PARTNER);
+        Map<Long, KllSketch[]> groupSketches = new HashMap<>();
+        for (PartnerSummaryDTO partner : partnerRepository.findAllSummaries()) {
+            KllSketch[] member = partnerSketches.get(partner.getId());
+            if (partner.getGroupId() == null || member == null) continue;
+            KllSketch[] group = groupSketches.computeIfAbsent(partner.getGroupId(), id -> emptySketches());
+            for (int m = 0; m < METRICS.length; m++) {
+                group[m].merge(member[m]);
+            }
+        }
+        byDimension.put(ColumnarShipments.Dimension.GROUP, groupSketches);
+
+        Sketches built = new Sketches(snapshot.getVersion(), byDimension);
+        sketches.set(built);
+        return built;
+    }
+
+    private Map<Long, KllSketch[]> collect(ColumnarShipments snapshot, ColumnarShipments.Dimension dimension) {
+        Map<Long, KllSketch[]> result = new HashMap<>();
+        for (ColumnarShipments.Metric metric : METRICS) {
+            snapshot.sketches(dimension, metric, SKETCH_K)
+                    .forEach((id, sketch) -> result.computeIfAbsent(id, k -> emptySketches())[metric.ordinal()] = sketch);
+        }
+        return result;
+    }
+
+    private KllSketch[] emptySketches() {
+        KllSketch[] result = new KllSketch[METRICS.length];
+        for (int m = 0; m < result.length; m++) {
+            result[m] = new KllSketch(SKETCH_K);
+        }
+        return result;
+    }
+
+    private DistributionDTO toDistribution(KllSketch[] entity, ColumnarShipments.Metric metric, int bins) {
+        KllSketch sketch = entity != null ? entity[metric.ordinal()] : null;
+        if (sketch == null || sketch.getCount() == 0) {
+            return new DistributionDTO(0, null, null, null, null, null, new double[0], new long[0]);
+        }
+
+        double min = sketch.getMin();
+        double max = sketch.getMax();
+        double[] edges = new double[bins + 1];
+        for (int i = 0; i <= bins; i++) {
+            edges[i] = i == bins ? max : min + (max - min) * i / bins;
+        }
+
+        return new DistributionDTO(
+                sketch.getCount(),
+                round(min),
+                round(sketch.quantile(0.1)),
+                round(sketch.quantile(0.5)),
+                round(sketch.quantile(0.9)),
+                round(max),
+                edges,
+                sketch.histogram(bins)
+        );
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
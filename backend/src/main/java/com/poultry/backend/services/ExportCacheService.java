@@ -0,0 +1,228 @@
+package com.poultry.backend.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A legenerált exportok korlátos gyorsítótára. A kulcs a formátum, a rendezett partner ID-k és az
+ * adatverzió ({@link DataVersionService}); ebből készül az ETag is. A kis fájlok a memóriában, a nagyobbak
+ * az ideiglenes könyvtárban maradnak, a legrégebben használtak törlődnek. Induláskor a könyvtár kiürül.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportCacheService {
+
+    private final DataVersionService dataVersionService;
+
+    @Value("${poultry.export.cache.max-entries:20}")
+    private int maxEntries;
+
+    @Value("${poultry.export.cache.max-disk-mb:512}")
+    private long maxDiskMb;
+
+    @Value("${poultry.export.cache.memory-limit-kb:1024}")
+    private int memoryLimitKb;
+
+    /**
+     * Az ETag része, hogy egy újraindítás előtti (akkor még azonos verziószámú) ETag ne egyezzen.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final LinkedHashMap<String, CachedExport> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+    private Path directory;
+
+    @FunctionalInterface
+    public interface ExportWriter {
+        void write(List<Long> partnerIds, OutputStream out) throws IOException;
+    }
+
+    public record ExportKey(String format, List<Long> partnerIds, long version, String etag) {
+
+        /**
+         * If-None-Match fejléc összevetése a konkrét ETag-ekkel (lista és gyenge ETag is); a "*"-ot a hívó kezeli.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) return false;
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals(etag)) return true;
+            }
+            return false;
+        }
+    }
+
+    private record CachedExport(long version, Path file, byte[] bytes, long size) {}
+
+    @PostConstruct
+    void prepareDirectory() throws IOException {
+        directory = Path.of(System.getProperty("java.io.tmpdir"), "poultry-export-cache");
+        Files.createDirectories(directory);
+        deleteAllFiles();
+    }
+
+    @PreDestroy
+    synchronized void clear() {
+        entries.clear();
+        diskBytes = 0;
+        deleteAllFiles();
+    }
+
+    public ExportKey key(String format, List<Long> partnerIds) {
+        List<Long> sorted = partnerIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        long version = dataVersionService.current();
+        String ids = sorted.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String etag = "\"" + format + "-" + epoch + "-" + version + "-" + sha256(ids).substring(0, 32) + "\"";
+        return new ExportKey(format, sorted, version, etag);
+    }
+
+    /**
+     * Tárolt példány esetén azt másolja ki, különben a writer kimenetét egyszerre írja a streambe és egy
+     * ideiglenes fájlba, amely akkor kerül a gyorsítótárba, ha közben nem változott az adatverzió.
+     */
+    public void write(ExportKey key, OutputStream out, ExportWriter writer) throws IOException {
+        InputStream cached = open(key.etag());
+        if (cached != null) {
+            try (cached) {
+                cached.transferTo(out);
+            }
+            return;
+        }
+
+        Path part = Files.createTempFile(directory, "export-", ".tmp");
+        boolean stored = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                writer.write(key.partnerIds(), new TeeOutputStream(out, file));
+            }
+            stored = store(key, part);
+        } finally {
+            if (!stored) delete(part);
+        }
+    }
+
+    private synchronized InputStream open(String etag) throws IOException {
+        CachedExport entry = entries.get(etag);
+        if (entry == null) return null;
+        if (entry.bytes() != null) return new ByteArrayInputStream(entry.bytes());
+        try {
+            return Files.newInputStream(entry.file());
+        } catch (NoSuchFileException e) {
+            remove(etag);
+            return null;
+        }
+    }
+
+    private synchronized boolean store(ExportKey key, Path part) throws IOException {
+        if (key.version() != dataVersionService.current() || entries.containsKey(key.etag())) return false;
+
+        long size = Files.size(part);
+        if (size > maxDiskMb * 1024 * 1024) return false;
+
+        if (size <= memoryLimitKb * 1024L) {
+            entries.put(key.etag(), new CachedExport(key.version(), null, Files.readAllBytes(part), size));
+            delete(part);
+        } else {
+            entries.put(key.etag(), new CachedExport(key.version(), part, null, size));
+            diskBytes += size;
+        }
+        evict();
+        return true;
+    }
+
+    /**
+     * Előbb a már elavult verziójú bejegyzések, utána a legrégebben használtak mennek, amíg a korlátok teljesülnek.
+     */
+    private void evict() {
+        long current = dataVersionService.current();
+        List<String> stale = entries.entrySet().stream()
+                .filter(e -> e.getValue().version() != current)
+                .map(Map.Entry::getKey)
+                .toList();
+        stale.forEach(this::remove);
+
+        Iterator<String> oldest = new ArrayList<>(entries.keySet()).iterator();
+        while (oldest.hasNext() && (entries.size() > maxEntries || diskBytes > maxDiskMb * 1024 * 1024)) {
+            remove(oldest.next());
+        }
+    }
+
+    private void remove(String etag) {
+        CachedExport entry = entries.remove(etag);
+        if (entry != null && entry.file() != null) {
+            diskBytes -= entry.size();
+            delete(entry.file());
+        }
+    }
+
+    private void deleteAllFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::delete);
+        } catch (IOException ignored) {
+            // a könyvtár hiánya vagy olvashatatlansága nem akadályozza az exportot
+        }
+    }
+
+    /**
+     * Windows alatt a még olvasott fájl nem törölhető; ilyenkor kilépéskor töröljük.
+     */
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.poultry.backend.services;
 
+import com.poultry.backend.dtos.GrowerPartnerLinkDTO;
+import com.poultry.backend.dtos.GrowerPartnerQuantityDTO;
+import com.poultry.backend.dtos.GrowerPartnerStatsDTO;
+import com.poultry.backend.dtos.GrowerStatsDTO;
+import com.poultry.backend.dtos.LocationKeyDTO;
 import com.poultry.backend.entities.Grower;
 import com.poultry.backend.entities.Partner;
 import com.poultry.backend.entities.Shipment;
 import com.poultry.backend.repositories.GrowerRepository;
+import com.poultry.backend.repositories.PartnerLocationRepository;
 import com.poultry.backend.repositories.PartnerRepository;
 import com.poultry.backend.repositories.ShipmentRepository;
 import jakarta.transaction.Transactional;
@@ -12,7 +18,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,32 +29,59 @@ public class GrowerService {
     private final GrowerRepository growerRepository;
     private final ShipmentRepository shipmentRepository;
     private final PartnerRepository partnerRepository;
+    private final PartnerLocationRepository partnerLocationRepository;
+    private final ImportFingerprintService importFingerprintService;
+    private final DataVersionService dataVersionService;
 
     public List<Grower> getAllGrowers() {
         return growerRepository.findAll();
     }
 
-    public List<Grower> getAllGrowersWithStats() {
-        List<Grower> growers = growerRepository.findAll();
+    /**
+     * Nevelők a kapcsolt partnereikkel és a partnerenként beszállított darabszámmal. Az adatmennyiségtől
+     * függetlenül négy lekérdezés: nevelők, nevelő-partner kapcsolatok, párokra csoportosított összegek, telephelyek.
+     */
+    public List<GrowerStatsDTO> getAllGrowersWithStats() {
+        List<GrowerStatsDTO> growers = growerRepository.findAllStatsRows();
 
-        for (Grower g : growers) {
-            for (Partner p : g.getPartners()) {
-                Integer total = shipmentRepository.sumQuantityByGrowerAndPartner(g.getId(), p.getId());
-                p.setTotalQuantity(total != null ? total.longValue() : 0L);
-            }
+        Map<Long, Map<Long, Long>> quantities = new HashMap<>();
+        for (GrowerPartnerQuantityDTO total : shipmentRepository.getTotalQuantitiesByGrowerAndPartner()) {
+            quantities.computeIfAbsent(total.getGrowerId(), id -> new HashMap<>())
+                    .put(total.getPartnerId(), total.getTotalQuantity());
+        }
+        Map<Long, List<LocationKeyDTO>> locationsByPartner = partnerLocationRepository.findAllLocationKeys().stream()
+                .collect(Collectors.groupingBy(LocationKeyDTO::getPartnerId));
+
+        Map<Long, GrowerStatsDTO> growersById = new HashMap<>();
+        growers.forEach(g -> growersById.put(g.getId(), g));
+        for (GrowerPartnerLinkDTO link : growerRepository.findAllPartnerLinks()) {
+            Long total = quantities.getOrDefault(link.getGrowerId(), Map.of()).get(link.getPartnerId());
+            growersById.get(link.getGrowerId()).getPartners().add(new GrowerPartnerStatsDTO(
+                    link.getPartnerId(),
+                    link.getPartnerName(),
+                    locationsByPartner.getOrDefault(link.getPartnerId(), List.of()),
+                    total != null ? total : 0L
+            ));
         }
         return growers;
     }
 
+    @Transactional
     public Grower createGrower(Grower g) {
-        return growerRepository.save(g);
+        Grower saved = growerRepository.save(g);
+        dataVersionService.bump();
+        return saved;
     }
 
+    @Transactional
     public Grower updateGrower(Long id, Grower details) {
         Grower g = growerRepository.findById(id).orElseThrow();
         g.setName(details.getName());
         g.setCity(details.getCity());
-        return growerRepository.save(g);
+        Grower saved = growerRepository.save(g);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
+        return saved;
     }
 
     @Transactional
@@ -66,5 +102,7 @@ public class GrowerService {
         grower.getPartners().clear();
         growerRepository.save(grower);
         growerRepository.delete(grower);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
     }
 }
@@ -0,0 +1,90 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.GrowerKeyDTO;
+import com.poultry.backend.dtos.ImportDryRunResult;
+import com.poultry.backend.dtos.LocationKeyDTO;
+import com.poultry.backend.dtos.ShipmentKeyDTO;
+import com.poultry.backend.repositories.GrowerRepository;
+import com.poultry.backend.repositories.PartnerLocationRepository;
+import com.poultry.backend.repositories.PartnerRepository;
+import com.poultry.backend.repositories.ShipmentRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Próbaimport: az értelmezett sorokat a törzsadatok és a szállítmány-kulcsok csak olvasható
+ * pillanatképén ellenőrzi, és megszámolja, mit hozna létre vagy módosítana a valódi import.
+ * Az adatbázisba semmit nem ír.
+ */
+public class ImportDryRun {
+
+    private final Map<String, String> growerCityByName = new HashMap<>();
+    private final Set<Long> partnerIds = new HashSet<>();
+    private final Map<String, Long> locationIdsByKey = new HashMap<>();
+    private final Map<ImportResolutionCache.ShipmentKey, Long> contentHashByKey = new HashMap<>();
+
+    private final Set<String> newLocationKeys = new HashSet<>();
+    private final Set<String> seenShipments = new HashSet<>();
+
+    private final ImportDryRunResult dryRunResult = new ImportDryRunResult();
+
+    public void preload(GrowerRepository growerRepository,
+                        PartnerRepository partnerRepository,
+                        PartnerLocationRepository partnerLocationRepository,
+                        ShipmentRepository shipmentRepository) {
+        for (GrowerKeyDTO g : growerRepository.findAllGrowerKeys()) {
+            growerCityByName.put(g.getName(), g.getCity() != null ? g.getCity() : "");
+        }
+        partnerIds.addAll(partnerRepository.findAllIds());
+        for (LocationKeyDTO loc : partnerLocationRepository.findAllLocationKeys()) {
+            locationIdsByKey.put(ImportResolutionCache.locationKey(loc.getPartnerId(), loc.getCity()), loc.getLocationId());
+        }
+        for (ShipmentKeyDTO key : shipmentRepository.findAllShipmentKeys()) {
+            contentHashByKey.put(new ImportResolutionCache.ShipmentKey(key.getDeliveryCode(), key.getLocationId()),
+                    key.getContentHash());
+        }
+    }
+
+    public ImportDryRunResult getDryRunResult() {
+        return dryRunResult;
+    }
+
+    public void validate(ParsedShipmentRow row) {
+        if (row.hasGrower()) {
+            String existingCity = growerCityByName.get(row.growerName());
+            if (existingCity == null) {
+                growerCityByName.put(row.growerName(), row.growerCity());
+                dryRunResult.setGrowersToCreate(dryRunResult.getGrowersToCreate() + 1);
+            } else if (!existingCity.equals(row.growerCity())) {
+                dryRunResult.getResult().addError(row.rowNum(),
+                        ImportResolutionCache.growerCityConflict(row.growerName(), existingCity));
+                return;
+            }
+        }
+
+        if (partnerIds.add(row.partnerId())) {
+            dryRunResult.setPartnersToCreate(dryRunResult.getPartnersToCreate() + 1);
+        }
+
+        String locationKey = ImportResolutionCache.locationKey(row.partnerId(), row.city());
+        Long locationId = locationIdsByKey.get(locationKey);
+        if (locationId == null && newLocationKeys.add(locationKey)) {
+            dryRunResult.setLocationsToCreate(dryRunResult.getLocationsToCreate() + 1);
+        }
+
+        if (seenShipments.add(locationKey + "|" + row.deliveryCode())) {
+            ImportResolutionCache.ShipmentKey key = new ImportResolutionCache.ShipmentKey(row.deliveryCode(), locationId);
+            if (locationId == null || !contentHashByKey.containsKey(key)) {
+                dryRunResult.setShipmentsToCreate(dryRunResult.getShipmentsToCreate() + 1);
+            } else if (Long.valueOf(row.contentHash()).equals(contentHashByKey.get(key))) {
+                dryRunResult.getResult().incrementUnchanged();
+            } else {
+                dryRunResult.setShipmentsToUpdate(dryRunResult.getShipmentsToUpdate() + 1);
+            }
+        }
+        dryRunResult.getResult().incrementSuccess();
+    }
+}
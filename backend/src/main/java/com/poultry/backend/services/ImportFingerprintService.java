@@ -0,0 +1,69 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.entities.ImportFingerprint;
+import com.poultry.backend.repositories.ImportFingerprintRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sikeresen (hiba nélkül) importált fájlok SHA-256 ujjlenyomatát tárolja, így ugyanannak
+ * a fájlnak az újbóli feltöltése nem csinál semmit. Bármilyen kézi adatmódosítás után az
+ * ujjlenyomatok érvényüket vesztik, mert az import eredménye ettől már eltérhet.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportFingerprintService {
+
+    private final ImportFingerprintRepository fingerprintRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public String fingerprint(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public boolean isImported(String fingerprint) {
+        return fingerprintRepository.existsById(fingerprint);
+    }
+
+    /**
+     * Az importálás kezdetekor érvényes generáció; ha közben adat módosult, a fájl nem jegyezhető fel.
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void record(String fingerprint, int rowCount, long startGeneration) {
+        if (generation.get() != startGeneration) return;
+        fingerprintRepository.save(new ImportFingerprint(fingerprint, LocalDateTime.now(), rowCount));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        fingerprintRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,72 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ImportJobStatusDTO;
+import com.poultry.backend.dtos.ImportResult;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Getter
+public class ImportJob implements ImportProgress {
+
+    private final String id;
+    private final String fileName;
+    private final Instant createdAt = Instant.now();
+
+    private volatile ImportJobStatusDTO.Status status = ImportJobStatusDTO.Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int rowsProcessed;
+    private volatile int successCount;
+    private volatile int failedCount;
+    private volatile String errorMessage;
+    private volatile ImportResult result;
+
+    public ImportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = ImportJobStatusDTO.Status.RUNNING;
+    }
+
+    @Override
+    public void chunkCommitted(int rowsProcessed, ImportResult result) {
+        this.rowsProcessed = rowsProcessed;
+        this.successCount = result.getSuccessCount();
+        this.failedCount = result.getFailedCount();
+    }
+
+    public void complete(ImportResult result) {
+        this.result = result;
+        this.successCount = result.getSuccessCount();
+        this.failedCount = result.getFailedCount();
+        finishedAt = Instant.now();
+        status = ImportJobStatusDTO.Status.COMPLETED;
+    }
+
+    public void fail(String message) {
+        errorMessage = message;
+        finishedAt = Instant.now();
+        status = ImportJobStatusDTO.Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public ImportJobStatusDTO toStatus() {
+        return new ImportJobStatusDTO(id, fileName, status, startedAt, finishedAt,
+                rowsProcessed, successCount, failedCount, rowsPerSecond(), errorMessage, result);
+    }
+
+    private double rowsPerSecond() {
+        if (startedAt == null) return 0.0;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return Math.round(rowsProcessed * 1000.0 / millis * 100.0) / 100.0;
+    }
+}
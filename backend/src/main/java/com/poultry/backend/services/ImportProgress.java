@@ -0,0 +1,10 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ImportResult;
+
+public interface ImportProgress {
+
+    ImportProgress NONE = (rowsProcessed, result) -> {};
+
+    void chunkCommitted(int rowsProcessed, ImportResult result);
+}
@@ -0,0 +1,154 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ShipmentKeyDTO;
+import com.poultry.backend.entities.Grower;
+import com.poultry.backend.entities.Partner;
+import com.poultry.backend.entities.PartnerLocation;
+import com.poultry.backend.repositories.GrowerRepository;
+import com.poultry.backend.repositories.PartnerLocationRepository;
+import com.poultry.backend.repositories.PartnerRepository;
+import com.poultry.backend.repositories.ShipmentRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Egy importálás idejére a törzsadatokat (nevelők, partnerek, telephelyek) és a meglévő
+ * szállítmány-kulcsokat néhány tömeges lekérdezéssel betölti, így soronként nem kell
+ * az adatbázishoz fordulni. A hiányzó törzsadatokat itt hozza létre és jegyzi fel.
+ * A tárolt entitások a kötegenkénti ürítés után leválasztottak lehetnek, ezért csak
+ * hivatkozásként használjuk őket.
+ */
+public class ImportResolutionCache {
+
+    public record ShipmentKey(String deliveryCode, Long locationId) {}
+
+    private record StoredShipment(Long id, Long contentHash) {}
+
+    private final GrowerRepository growerRepository;
+    private final PartnerRepository partnerRepository;
+    private final PartnerLocationRepository partnerLocationRepository;
+    private final ShipmentRepository shipmentRepository;
+
+    private final Map<String, Grower> growersByName = new HashMap<>();
+    private final Map<Long, Partner> partnersById = new HashMap<>();
+    private final Map<String, PartnerLocation> locationsByKey = new HashMap<>();
+    private final Map<ShipmentKey, StoredShipment> shipmentsByKey = new HashMap<>();
+
+    public ImportResolutionCache(GrowerRepository growerRepository,
+                                 PartnerRepository partnerRepository,
+                                 PartnerLocationRepository partnerLocationRepository,
+                                 ShipmentRepository shipmentRepository) {
+        this.growerRepository = growerRepository;
+        this.partnerRepository = partnerRepository;
+        this.partnerLocationRepository = partnerLocationRepository;
+        this.shipmentRepository = shipmentRepository;
+    }
+
+    public void preload() {
+        for (Grower g : growerRepository.findAll()) {
+            growersByName.put(g.getName(), g);
+        }
+        for (Partner p : partnerRepository.findAll()) {
+            partnersById.put(p.getId(), p);
+        }
+        for (PartnerLocation loc : partnerLocationRepository.findAll()) {
+            locationsByKey.put(locationKey(loc.getPartner().getId(), loc.getCity()), loc);
+        }
+        for (ShipmentKeyDTO key : shipmentRepository.findAllShipmentKeys()) {
+            shipmentsByKey.put(new ShipmentKey(key.getDeliveryCode(), key.getLocationId()),
+                    new StoredShipment(key.getShipmentId(), key.getContentHash()));
+        }
+    }
+
+    public Grower getOrCreateGrower(String name, String city) {
+        Grower existing = growersByName.get(name);
+        if (existing != null) {
+            String existingCity = existing.getCity() != null ? existing.getCity() : "";
+            if (!city.equals(existingCity)) {
+                throw new IllegalArgumentException(growerCityConflict(name, existing.getCity()));
+            }
+            return existing;
+        }
+
+        Grower g = new Grower();
+        g.setName(name);
+        g.setCity(city);
+        g = growerRepository.save(g);
+        growersByName.put(name, g);
+        return g;
+    }
+
+    public Partner getOrCreatePartner(long partnerId, String partnerName, Grower grower) {
+        Partner existing = partnersById.get(partnerId);
+        if (existing != null) {
+            if (grower != null) {
+                boolean alreadyLinked = existing.getGrowers().stream()
+                        .anyMatch(g -> g.getId().equals(grower.getId()));
+
+                if (!alreadyLinked) {
+                    // A gyorsítótárban tartott példány egy korábbi köteg után már leválasztott lehet,
+                    // ezért a kapcsolatot mindig a perzisztencia-kontextusban lévő partneren rögzítjük.
+                    Partner managed = partnerRepository.findById(partnerId).orElseThrow();
+                    managed.getGrowers().add(growerRepository.getReferenceById(grower.getId()));
+                    partnersById.put(partnerId, managed);
+                    existing = managed;
+                }
+            }
+            return existing;
+        }
+
+        Partner newP = new Partner();
+        newP.setId(partnerId);
+        newP.setName(partnerName);
+        if (grower != null) {
+            newP.getGrowers().add(grower);
+        }
+        newP = partnerRepository.save(newP);
+        partnersById.put(partnerId, newP);
+        return newP;
+    }
+
+    public PartnerLocation getOrCreateLocation(Partner partner, String city, String county) {
+        String key = locationKey(partner.getId(), city);
+        PartnerLocation existing = locationsByKey.get(key);
+        if (existing != null) {
+            if (county != null && !county.equals(existing.getCounty())) {
+                existing.setCounty(county);
+                existing = partnerLocationRepository.save(existing);
+                locationsByKey.put(key, existing);
+            }
+            return existing;
+        }
+
+        PartnerLocation newLoc = new PartnerLocation();
+        newLoc.setPartner(partner);
+        newLoc.setCity(city);
+        newLoc.setCounty(county);
+        newLoc = partnerLocationRepository.save(newLoc);
+        locationsByKey.put(key, newLoc);
+        return newLoc;
+    }
+
+    public Long findShipmentId(String deliveryCode, PartnerLocation location) {
+        StoredShipment stored = shipmentsByKey.get(new ShipmentKey(deliveryCode, location.getId()));
+        return stored != null ? stored.id() : null;
+    }
+
+    public boolean isUnchanged(String deliveryCode, PartnerLocation location, long contentHash) {
+        StoredShipment stored = shipmentsByKey.get(new ShipmentKey(deliveryCode, location.getId()));
+        return stored != null && stored.contentHash() != null && stored.contentHash() == contentHash;
+    }
+
+    public void registerShipment(String deliveryCode, PartnerLocation location, Long shipmentId, Long contentHash) {
+        shipmentsByKey.put(new ShipmentKey(deliveryCode, location.getId()), new StoredShipment(shipmentId, contentHash));
+    }
+
+    static String growerCityConflict(String name, String existingCity) {
+        return "A(z) '" + name + "' nevelő már létezik más településsel: '" + existingCity + "'";
+    }
+
+    static String locationKey(Long partnerId, String city) {
+        return partnerId + "|" + city;
+    }
+}
@@ -0,0 +1,187 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.LeaderboardCacheStatsDTO;
+import com.poultry.backend.dtos.LeaderboardDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A ranglista utolsó sikeres kiszámításának pillanatképe. Adatváltozáskor ({@link DataChangedEvent})
+ * rövid késleltetéssel, háttérszálon számolja újra, az egymás utáni változásokat egy számításba vonva.
+ * Az olvasók közben a legutóbbi jó pillanatképet kapják, csak a legelső kérés vár a számításra.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardCache {
+
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final AnalyticsService analyticsService;
+    private final DataVersionService dataVersionService;
+
+    private record Snapshot(List<LeaderboardDTO> leaderboard, long version, long computedAt) {}
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean recomputeScheduled = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder recomputations = new LongAdder();
+    private final LongAdder failedRecomputations = new LongAdder();
+    private volatile Long lastComputeMillis;
+    private volatile String lastError;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void startScheduler() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-recompute");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    public List<LeaderboardDTO> get() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            hits.increment();
+            return current.leaderboard();
+        }
+        misses.increment();
+        return computeNow().leaderboard();
+    }
+
+    public record Page(int total, List<LeaderboardDTO> items) {}
+
+    /**
+     * A pillanatkép szűrt, rendezett és lapozott részlete. Limit esetén csak offset + limit elemet tartunk
+     * egy korlátos kupacban (a legrosszabb a tetején), így nem rendezzük a teljes listát.
+     * Egyenlő értékeknél az eredeti sorrend dönt.
+     */
+    public Page select(LeaderboardQuery query) {
+        List<LeaderboardDTO> all = get();
+        List<LeaderboardDTO> matching = query.type() == LeaderboardQuery.EntryType.ALL
+                ? all
+                : all.stream().filter(query::matches).toList();
+        int total = matching.size();
+        if (query.offset() >= total) {
+            return new Page(total, List.of());
+        }
+        int end = query.limit() != null ? (int) Math.min(total, (long) query.offset() + query.limit()) : total;
+
+        if (query.sort() == null) {
+            return new Page(total, matching.subList(query.offset(), end));
+        }
+
+        Comparator<Integer> better = Comparator.<Integer, LeaderboardDTO>comparing(matching::get, query.sort().comparator())
+                .thenComparing(Comparator.naturalOrder());
+        List<Integer> selected;
+        if (query.limit() == null) {
+            selected = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) selected.add(i);
+        } else {
+            PriorityQueue<Integer> worstFirst = new PriorityQueue<>(end, better.reversed());
+            for (int i = 0; i < total; i++) {
+                if (worstFirst.size() < end) {
+                    worstFirst.add(i);
+                } else if (better.compare(i, worstFirst.peek()) < 0) {
+                    worstFirst.poll();
+                    worstFirst.add(i);
+                }
+            }
+            selected = new ArrayList<>(worstFirst);
+        }
+        selected.sort(better);
+
+        List<LeaderboardDTO> items = new ArrayList<>(end - query.offset());
+        for (int i = query.offset(); i < end; i++) {
+            items.add(matching.get(selected.get(i)));
+        }
+        return new Page(total, items);
+    }
+
+    public LeaderboardCacheStatsDTO getStats() {
+        Snapshot current = snapshot.get();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new LeaderboardCacheStatsDTO(
+                current != null ? System.currentTimeMillis() - current.computedAt() : null,
+                current == null || current.version() != dataVersionService.current(),
+                hitCount,
+                missCount,
+                total > 0 ? (double) hitCount / total : 0.0,
+                recomputations.sum(),
+                failedRecomputations.sum(),
+                lastComputeMillis,
+                lastError
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        scheduleRecompute();
+    }
+
+    @EventListener
+    void onDataChanged(DataChangedEvent event) {
+        scheduleRecompute();
+    }
+
+    private void scheduleRecompute() {
+        if (recomputeScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::recompute, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void recompute() {
+        recomputeScheduled.set(false);
+        try {
+            computeNow();
+            lastError = null;
+        } catch (RuntimeException e) {
+            // a korábbi pillanatkép marad érvényben, a hibát a statisztika mutatja
+            failedRecomputations.increment();
+            lastError = e.getMessage();
+        }
+    }
+
+    /**
+     * A verziót a számítás előtt olvassuk ki, így a közben érkező változás újabb számítást indít,
+     * és nem tűnhet frissnek egy régebbi adatokból készült pillanatkép.
+     */
+    private synchronized Snapshot computeNow() {
+        long version = dataVersionService.current();
+        Snapshot current = snapshot.get();
+        if (current != null && current.version() == version) return current;
+
+        long start = System.nanoTime();
+        List<LeaderboardDTO> leaderboard = List.copyOf(analyticsService.getLeaderboard());
+        lastComputeMillis = (System.nanoTime() - start) / 1_000_000;
+        recomputations.increment();
+
+        Snapshot computed = new Snapshot(leaderboard, version, System.currentTimeMillis());
+        snapshot.set(computed);
+        return computed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.LeaderboardDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * A ranglista szűrése (csoportok / partnerek), rendezési szempontja és lapozása.
+ * Rendezés nélkül az eredeti sorrend marad; a limit nélküli lekérdezés a teljes (szűrt) listát adja.
+ */
+public record LeaderboardQuery(SortKey sort, EntryType type, int offset, Integer limit) {
+
+    /**
+     * A pontszám, máj és kóser szerint csökkenő, az elhullás szerint növekvő sorrend, ahogy a ranglista oldalon.
+     */
+    public enum SortKey {
+        SCORE(Comparator.comparing(LeaderboardDTO::getTotalScore).reversed()),
+        LIVER(Comparator.comparing(LeaderboardDTO::getAvgLiverWeight).reversed()),
+        KOSHER(Comparator.comparing(LeaderboardDTO::getAvgKosherPercent).reversed()),
+        MORTALITY(Comparator.comparing(LeaderboardDTO::getAvgMortalityRate));
+
+        private final Comparator<LeaderboardDTO> comparator;
+
+        SortKey(Comparator<LeaderboardDTO> comparator) {
+            this.comparator = comparator;
+        }
+
+        public Comparator<LeaderboardDTO> comparator() {
+            return comparator;
+        }
+    }
+
+    public enum EntryType { ALL, GROUP, PARTNER }
+
+    public static LeaderboardQuery of(String sort, String type, Integer offset, Integer limit) {
+        if (offset != null && offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Az offset nem lehet negatív!");
+        }
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A limitnek legalább 1-nek kell lennie!");
+        }
+        return new LeaderboardQuery(
+                sort != null ? parse(SortKey.class, sort, "rendezési szempont") : null,
+                type != null ? parse(EntryType.class, type, "típus") : EntryType.ALL,
+                offset != null ? offset : 0,
+                limit
+        );
+    }
+
+    public boolean matches(LeaderboardDTO entry) {
+        return switch (type) {
+            case ALL -> true;
+            case GROUP -> entry.isGroup();
+            case PARTNER -> !entry.isGroup();
+        };
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumType, String value, String label) {
+        try {
+            return Enum.valueOf(enumType, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ismeretlen " + label + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.poultry.backend.services;
+
+import java.time.LocalDate;
+
+/**
+ * Egy Excel sor feldolgozott, adatbázistól független alakja. A származtatott értékek
+ * (nettó darab/súly, ráhízás, elhullás %) már ki vannak számolva.
+ */
+public record ParsedShipmentRow(
+        int rowNum,
+        String growerName,
+        String growerCity,
+        long partnerId,
+        String partnerName,
+        String city,
+        String county,
+        String deliveryCode,
+        LocalDate deliveryDate,
+        int quantity,
+        double totalWeight,
+        int processingWeek,
+        LocalDate processingDate,
+        int netQuantity,
+        double netWeight,
+        int transportMortality,
+        double transportMortalityKg,
+        double kosherPercent,
+        double liverWeight,
+        double fatteningRate,
+        int mortalityCount,
+        double mortalityRate,
+        int fatteningDays
+) {
+    public boolean hasGrower() {
+        return growerName != null;
+    }
+
+    /**
+     * A sor tartalmának 64 bites lenyomata (a sorszám nélkül). Ha megegyezik a szállítmánynál
+     * tárolt értékkel, a sort újraimportáláskor nem kell menteni.
+     */
+    public long contentHash() {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, growerName);
+        h = mix(h, growerCity);
+        h = mix(h, partnerId);
+        h = mix(h, partnerName);
+        h = mix(h, city);
+        h = mix(h, county);
+        h = mix(h, deliveryCode);
+        h = mix(h, deliveryDate);
+        h = mix(h, quantity);
+        h = mix(h, Double.doubleToLongBits(totalWeight));
+        h = mix(h, processingWeek);
+        h = mix(h, processingDate);
+        h = mix(h, netQuantity);
+        h = mix(h, Double.doubleToLongBits(netWeight));
+        h = mix(h, transportMortality);
+        h = mix(h, Double.doubleToLongBits(transportMortalityKg));
+        h = mix(h, Double.doubleToLongBits(kosherPercent));
+        h = mix(h, Double.doubleToLongBits(liverWeight));
+        h = mix(h, Double.doubleToLongBits(fatteningRate));
+        h = mix(h, mortalityCount);
+        h = mix(h, Double.doubleToLongBits(mortalityRate));
+        h = mix(h, fatteningDays);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, Object value) {
+        if (value == null) return mix(h, 0L);
+        if (value instanceof String s) {
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(h, (long) s.length());
+        }
+        return mix(h, (long) value.hashCode());
+    }
+
+    private static long mix(long h, long value) {
+        return Long.rotateLeft((h ^ value) * 0x9e3779b97f4a7c15L, 31);
+    }
+}
@@ -25,6 +25,9 @@ public class PartnerService {
     private final PartnerGroupRepository groupRepository;
     private final GrowerRepository growerRepository;
     private final PartnerLocationRepository locationRepository;
+    private final ImportFingerprintService importFingerprintService;
+    private final DataVersionService dataVersionService;
+    private final StatsRollupService statsRollupService;
 
     public List<Partner> getAllPartners() {
         List<Partner> partners = partnerRepository.findAll();
@@ -42,6 +45,7 @@ public class PartnerService {
         return partners;
     }
 
+    @Transactional
     public Partner createPartner(Partner partner) {
         if (partnerRepository.existsById(partner.getId())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
@@ -57,7 +61,9 @@ public class PartnerService {
             }
         }
 
-        return partnerRepository.save(partner);
+        Partner saved = partnerRepository.save(partner);
+        dataVersionService.bump();
+        return saved;
     }
 
     @Transactional
@@ -85,20 +91,27 @@ public class PartnerService {
                             });
                 }
             }
-            existingPartner.getLocations().removeIf(loc ->
-                    loc.getId() != null && !incomingIds.contains(loc.getId())
-            );
+            List<Long> removedIds = existingPartner.getLocations().stream()
+                    .map(PartnerLocation::getId)
+                    .filter(locId -> locId != null && !incomingIds.contains(locId))
+                    .toList();
+            statsRollupService.removeLocations(existingPartner.getId(), removedIds);
+            existingPartner.getLocations().removeIf(loc -> removedIds.contains(loc.getId()));
         }
 
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
         return partnerRepository.save(existingPartner);
     }
 
     @Transactional
     public void deletePartner(Long id) {
-        if (!partnerRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Partner nem található");
-        }
-        partnerRepository.deleteById(id);
+        Partner partner = partnerRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Partner nem található"));
+        statsRollupService.removePartner(id, partner.getLocations().stream().map(PartnerLocation::getId).toList());
+        partnerRepository.delete(partner);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
     }
 
     @Transactional
@@ -118,6 +131,7 @@ public class PartnerService {
             p.setGroup(group);
             partnerRepository.save(p);
         }
+        dataVersionService.bump();
         return group;
     }
 
@@ -132,6 +146,7 @@ public class PartnerService {
             partnerRepository.save(p);
         }
         groupRepository.delete(group);
+        dataVersionService.bump();
     }
 
     @Transactional
@@ -150,5 +165,8 @@ public class PartnerService {
         partnerRepository.deleteAll();
         groupRepository.deleteAll();
         growerRepository.deleteAll();
+        statsRollupService.clear();
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.poultry.backend.services;
+
+import java.util.List;
+
+/**
+ * Az import oszlopai: az alapértelmezett pozíció (a régi, fejléc nélküli sablon szerint),
+ * a hibaüzenetben használt név és a fejlécben elfogadott (kisbetűs) elnevezések.
+ */
+public enum ShipmentColumn {
+    GROWER(0, "Nevelő", "nevelő"),
+    NAME_CODE(1, "Név/Kód", "név/kód", "név", "partner"),
+    CITY(2, "Telephely", "telephely", "település"),
+    COUNTY(3, "Megye", "megye"),
+    DELIVERY_DATE(4, "Szállítás dátuma", "szállítás dátuma", "szállítási dátum"),
+    QUANTITY(5, "Befogott db", "befogott db"),
+    TOTAL_WEIGHT(6, "Befogott súly", "befogott kg", "befogott súly"),
+    PROCESSING_WEEK(8, "Vágási hét", "vágási hét", "hét"),
+    PROCESSING_DATE(9, "Vágás dátuma", "vágás dátuma", "vágási dátum"),
+    NET_QUANTITY(10, "Beszállított db", "beszállított db"),
+    NET_WEIGHT(11, "Beszállított kg", "beszállított kg"),
+    TRANSPORT_MORTALITY(13, "Útihulla db", "útihulla db"),
+    TRANSPORT_MORTALITY_KG(14, "Útihulla kg", "útihulla kg"),
+    KOSHER_PERCENT(15, "Kóser %", "kóser %", "kóser"),
+    LIVER_WEIGHT(16, "Máj súly", "máj súly", "máj kg", "máj"),
+    FATTENING_RATE(17, "Ráhízás", "ráhízás"),
+    MORTALITY_COUNT(18, "Elhullás db", "elhullás db", "elhullás"),
+    MORTALITY_RATE(19, "Elhullás %", "elhullás %"),
+    FATTENING_DAYS(20, "Tömés napok", "tömés napok");
+
+    private final int defaultIndex;
+    private final String label;
+    private final List<String> headerNames;
+
+    ShipmentColumn(int defaultIndex, String label, String... headerNames) {
+        this.defaultIndex = defaultIndex;
+        this.label = label;
+        this.headerNames = List.of(headerNames);
+    }
+
+    public int getDefaultIndex() {
+        return defaultIndex;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public List<String> getHeaderNames() {
+        return headerNames;
+    }
+}
@@ -0,0 +1,131 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.utils.CellValues;
+import com.poultry.backend.utils.SheetRow;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A fejlécsorból egyszer feloldott oszlopkiosztás és a hozzá tartozó típusos cellaolvasók.
+ * A fel nem ismert fejlécű oszlopok az alapértelmezett pozíciójukon maradnak. Az olvasók nem
+ * dobnak kivételt: az értelmezhetetlen szám NaN, az értelmezhetetlen dátum {@link #INVALID_DATE}.
+ */
+public class ShipmentColumnMapping {
+
+    public static final LocalDate INVALID_DATE = LocalDate.MIN;
+
+    private static final ShipmentColumn[] COLUMNS = ShipmentColumn.values();
+
+    public static final ShipmentColumnMapping DEFAULT = new ShipmentColumnMapping(defaultIndices());
+
+    private final int[] indices;
+    private final String[] descriptions;
+
+    private ShipmentColumnMapping(int[] indices) {
+        this.indices = indices;
+        this.descriptions = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            descriptions[i] = COLUMNS[i].getLabel() + " (" + columnLetter(i) + " oszlop)";
+        }
+    }
+
+    public static ShipmentColumnMapping fromHeader(SheetRow header) {
+        Map<String, ShipmentColumn> byHeaderName = new HashMap<>();
+        for (ShipmentColumn column : COLUMNS) {
+            for (String name : column.getHeaderNames()) {
+                byHeaderName.put(name, column);
+            }
+        }
+
+        int[] indices = defaultIndices();
+        boolean[] found = new boolean[COLUMNS.length];
+        for (int cell = 0; cell < header.size(); cell++) {
+            if (!(header.getValue(cell) instanceof String text)) continue;
+            ShipmentColumn column = byHeaderName.get(normalize(text));
+            if (column != null && !found[column.ordinal()]) {
+                indices[column.ordinal()] = cell;
+                found[column.ordinal()] = true;
+            }
+        }
+        return new ShipmentColumnMapping(indices);
+    }
+
+    public int indexOf(ShipmentColumn column) {
+        return indices[column.ordinal()];
+    }
+
+    public String columnLetter(ShipmentColumn column) {
+        return columnLetter(column.ordinal());
+    }
+
+    /**
+     * Hibaüzenetekhez, pl. "Befogott db (F oszlop)".
+     */
+    public String describe(ShipmentColumn column) {
+        return descriptions[column.ordinal()];
+    }
+
+    public String text(SheetRow row, ShipmentColumn column) {
+        int index = indexOf(column);
+        Object value = row.getValue(index);
+        if (value == null) return "";
+        if (value instanceof String s) return s;
+        if (value instanceof Double number) {
+            return row.isDateFormatted(index)
+                    ? DateUtil.getLocalDateTime(number).toLocalDate().toString()
+                    : number.toString();
+        }
+        if (value instanceof Boolean bool) return bool ? "TRUE" : "FALSE";
+        return value.toString();
+    }
+
+    /**
+     * Üres cella esetén 0, nem numerikus cella esetén NaN.
+     */
+    public double number(SheetRow row, ShipmentColumn column) {
+        Object value = row.getValue(indexOf(column));
+        if (value == null) return 0.0;
+        if (value instanceof Double number) return number;
+        return Double.NaN;
+    }
+
+    /**
+     * Üres cella esetén null, értelmezhetetlen érték esetén {@link #INVALID_DATE}.
+     */
+    public LocalDate date(SheetRow row, ShipmentColumn column) {
+        int index = indexOf(column);
+        Object value = row.getValue(index);
+        if (value == null) return null;
+        if (value instanceof LocalDate date) return date;
+        if (value instanceof Double number) {
+            return row.isDateFormatted(index) ? DateUtil.getLocalDateTime(number).toLocalDate() : INVALID_DATE;
+        }
+        if (value instanceof String text) {
+            if (text.isBlank()) return null;
+            LocalDate date = CellValues.parseDate(text);
+            return date != null ? date : INVALID_DATE;
+        }
+        return INVALID_DATE;
+    }
+
+    private String columnLetter(int ordinal) {
+        return CellReference.convertNumToColString(indices[ordinal]);
+    }
+
+    private static String normalize(String header) {
+        return header.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static int[] defaultIndices() {
+        int[] indices = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            indices[i] = COLUMNS[i].getDefaultIndex();
+        }
+        return indices;
+    }
+}
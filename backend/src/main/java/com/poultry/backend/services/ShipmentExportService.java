@@ -1,25 +1,45 @@
 package com.poultry.backend.services;
 
-import com.poultry.backend.entities.Grower;
-import com.poultry.backend.entities.Shipment;
+import com.poultry.backend.dtos.ShipmentExportRowDTO;
 import com.poultry.backend.repositories.ShipmentRepository;
+import com.poultry.backend.utils.ColumnWidthTracker;
+import com.poultry.backend.utils.CsvRowWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.temporal.WeekFields;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
 public class ShipmentExportService {
 
     private final ShipmentRepository shipmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Ennyi sor marad a memóriában, a korábbiak (tömörített) ideiglenes fájlba kerülnek.
+     */
+    private static final int ROW_WINDOW = 200;
+    private static final int COLUMN_PADDING = 1000;
 
     private static final String[] COLUMNS = {
             "Nevelő", "Név", "Telephely", "Megye", "Szállítás\ndátuma", "Befogott\ndb", "Befogott\nkg",
@@ -28,55 +48,294 @@ public class ShipmentExportService {
             "Ráhízás", "Elhullás", "Elhullás %", "Tömés napok"
     };
 
-    public ByteArrayInputStream exportShipments(List<Long> partnerIds) throws IOException {
-        List<Shipment> shipments = shipmentRepository.findByLocationPartnerIdInOrderByProcessingDateDesc(partnerIds);
+    private static final Set<Integer> DECIMAL_COLUMNS = Set.of(6, 7, 11, 12, 14, 15, 16, 17);
+    private static final int PERCENT_COLUMN = 19;
+
+    /**
+     * CSV-ben a tizedes értékek legfeljebb ennyi tizedesjegyet kapnak, az elhullás % két tizedesre kerekített százalék.
+     */
+    private static final int CSV_FRACTION_DIGITS = 4;
+
+    /**
+     * A zip exportnál egyszerre épülő munkafüzetek felső korlátja; mindegyik egy adatbázis-kapcsolatot is foglal.
+     */
+    private static final int MAX_ZIP_WORKERS = 6;
+
+    /**
+     * A közös várakozási sor hossza; ha megtelik, a kérés szála maga építi a munkafüzetet.
+     */
+    private static final int ZIP_QUEUE_CAPACITY = MAX_ZIP_WORKERS * 4;
+
+    private ThreadPoolExecutor zipExecutor;
+    private int zipParallelism;
+    private TransactionTemplate readOnlyTransaction;
+
+    private record PartnerWorkbook(String fileName, Path file) {}
+
+    @PostConstruct
+    void startExecutor() {
+        zipParallelism = Math.min(Runtime.getRuntime().availableProcessors(), MAX_ZIP_WORKERS);
+        AtomicInteger threadCount = new AtomicInteger();
+        zipExecutor = new ThreadPoolExecutor(zipParallelism, zipParallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(ZIP_QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "shipment-export-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (task, executor) -> {
+                    // CallerRunsPolicy leállítás után csendben eldobná a feladatot, és a kérés örökké várna rá
+                    if (executor.isShutdown()) throw new RejectedExecutionException("Az export szálkészlete leállt");
+                    task.run();
+                });
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        zipExecutor.shutdownNow();
+    }
+
+    /**
+     * A munkafüzetet közvetlenül a kapott streambe írja, a teljes fájl nem kerül a memóriába.
+     * A sorok egyetlen lekérdezésből, kurzorral érkeznek, entitás nem töltődik be. A streamet nem zárja le.
+     */
+    @Transactional(readOnly = true)
+    public void writeShipments(List<Long> partnerIds, OutputStream out) throws IOException {
+        try (Stream<ShipmentExportRowDTO> shipments = shipmentRepository.streamExportRows(partnerIds)) {
+            writeWorkbook(shipments.iterator(), out);
+        }
+    }
+
+    /**
+     * Partnerenként külön munkafüzet egy zip fájlban. A munkafüzetek korlátos szálkészleten, párhuzamosan
+     * készülnek (mindegyik saját SXSSF íróval, stílusokkal és olvasó tranzakcióval) ideiglenes fájlba, és
+     * elkészülési sorrendben kerülnek a zipbe. Kérésenként legfeljebb kétszer annyi munkafüzet van folyamatban,
+     * ahány szál dolgozik, így egy sok partneres kérés sem tölti meg a közös sort. Szállítmány nélküli
+     * partnerhez nem készül fájl.
+     */
+    public void writeShipmentsZip(List<Long> partnerIds, OutputStream out) throws IOException {
+        Iterator<Long> remaining = partnerIds.stream().filter(Objects::nonNull).distinct().sorted().iterator();
+        ExecutorCompletionService<PartnerWorkbook> completion = new ExecutorCompletionService<>(zipExecutor);
+        PendingFiles pending = new PendingFiles();
+        List<Future<PartnerWorkbook>> futures = new ArrayList<>();
+        int inFlight = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(out));
+        // az xlsx maga is tömörített, újratömörítése csak időt vinne el
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        try (zip) {
+            while (inFlight < zipParallelism * 2 && remaining.hasNext()) {
+                Long partnerId = remaining.next();
+                futures.add(completion.submit(() -> buildPartnerWorkbook(partnerId, pending)));
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                PartnerWorkbook workbook = takeCompleted(completion);
+                inFlight--;
+                if (remaining.hasNext()) {
+                    Long partnerId = remaining.next();
+                    futures.add(completion.submit(() -> buildPartnerWorkbook(partnerId, pending)));
+                    inFlight++;
+                }
+                if (workbook == null) continue;
+                try {
+                    zip.putNextEntry(new ZipEntry(workbook.fileName()));
+                    Files.copy(workbook.file(), zip);
+                    zip.closeEntry();
+                } finally {
+                    Files.deleteIfExists(workbook.file());
+                }
+            }
+        } finally {
+            for (Future<PartnerWorkbook> future : futures) {
+                future.cancel(true);
+            }
+            pending.close();
+        }
+    }
+
+    /**
+     * Egy zip export munkafüzeteinek ideiglenes fájljai. A lezárás után elkészülő munkafüzetet a feladat
+     * maga törli, így az sem hagy fájlt maga után, amelyik a megszakítás és az eredmény átadása között végzett.
+     */
+    private static class PendingFiles {
+        private final List<Path> files = new ArrayList<>();
+        private boolean closed;
+
+        synchronized boolean register(Path file) {
+            if (closed) return false;
+            files.add(file);
+            return true;
+        }
+
+        void close() {
+            List<Path> remaining;
+            synchronized (this) {
+                closed = true;
+                remaining = new ArrayList<>(files);
+                files.clear();
+            }
+            for (Path file : remaining) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private PartnerWorkbook buildPartnerWorkbook(Long partnerId, PendingFiles pending) throws IOException {
+        Path file = Files.createTempFile("partner-export-", ".xlsx");
+        String[] partnerName = new String[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ShipmentExportRowDTO> shipments = shipmentRepository.streamExportRows(List.of(partnerId));
+                     OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                    writeWorkbook(shipments.peek(row -> partnerName[0] = row.getPartnerName()).iterator(), fileOut);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        if (partnerName[0] == null || Thread.currentThread().isInterrupted() || !pending.register(file)) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+        return new PartnerWorkbook(zipEntryName(partnerId, partnerName[0]), file);
+    }
+
+    private PartnerWorkbook takeCompleted(ExecutorCompletionService<PartnerWorkbook> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("A partnerenkénti export megszakadt");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException("A partnerenkénti munkafüzet nem készült el", e.getCause());
+        }
+    }
+
+    /**
+     * Windows alatt a még olvasott fájl nem törölhető; ilyenkor kilépéskor töröljük.
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private static String zipEntryName(Long partnerId, String partnerName) {
+        String safeName = partnerName.replaceAll("[\\\\/:*?\"<>|]", "_").trim();
+        return partnerId + "_" + safeName + ".xlsx";
+    }
 
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    private void writeWorkbook(Iterator<ShipmentExportRowDTO> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (workbook) {
 
             Sheet sheet = workbook.createSheet("Adatok");
+            ColumnWidthTracker widths = new ColumnWidthTracker(COLUMNS.length);
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle dataStyle = createDataStyle(workbook);
             CellStyle decimalStyle = createDecimalStyle(workbook, dataStyle);
             CellStyle percentStyle = createPercentStyle(workbook, dataStyle);
+            CellStyle[] columnStyles = new CellStyle[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columnStyles[i] = i == PERCENT_COLUMN ? percentStyle : DECIMAL_COLUMNS.contains(i) ? decimalStyle : dataStyle;
+            }
 
-            createHeaderRow(sheet, headerStyle);
+            createHeaderRow(sheet, headerStyle, widths);
 
             int rowIdx = 1;
-            for (Shipment s : shipments) {
-                Row row = sheet.createRow(rowIdx++);
-                fillExportRow(row, s, dataStyle, decimalStyle, percentStyle);
+            Object[] values = new Object[COLUMNS.length];
+            while (rows.hasNext()) {
+                exportValues(rows.next(), values);
+                fillExportRow(sheet.createRow(rowIdx++), values, widths, columnStyles);
             }
 
-            autoSizeColumns(sheet);
+            widths.applyTo(sheet, COLUMN_PADDING);
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * Ugyanaz a 21 oszlop, mint az xlsx exportban, gzip-pel tömörített, pontosvesszővel tagolt CSV-ként,
+     * soronként a kapott streambe írva. A streamet nem zárja le.
+     */
+    @Transactional(readOnly = true)
+    public void writeShipmentsCsv(List<Long> partnerIds, OutputStream out) throws IOException {
+        try (Stream<ShipmentExportRowDTO> shipments = shipmentRepository.streamExportRows(partnerIds)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(out), 64 * 1024) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024)) {
+                CsvRowWriter csv = new CsvRowWriter(writer);
+                for (String column : COLUMNS) {
+                    csv.text(column.replace('\n', ' '));
+                }
+                csv.endRow();
+
+                Object[] values = new Object[COLUMNS.length];
+                Iterator<ShipmentExportRowDTO> rows = shipments.iterator();
+                while (rows.hasNext()) {
+                    exportValues(rows.next(), values);
+                    for (int i = 0; i < values.length; i++) {
+                        writeCsvValue(csv, i, values[i]);
+                    }
+                    csv.endRow();
+                }
+            }
         }
     }
 
-    private void fillExportRow(Row row, Shipment shipment, CellStyle dataStyle, CellStyle decimalStyle, CellStyle percentStyle) {
+    private void writeCsvValue(CsvRowWriter csv, int col, Object value) {
+        if (value == null) csv.integer(0);
+        else if (value instanceof Integer i) csv.integer(i);
+        else if (value instanceof Double d) {
+            if (col == PERCENT_COLUMN) csv.decimal(d * 100, 2);
+            else csv.decimal(d, CSV_FRACTION_DIGITS);
+        } else csv.text(value.toString());
+    }
+
+    private void fillExportRow(Row row, Object[] values, ColumnWidthTracker widths, CellStyle[] columnStyles) {
+        for (int i = 0; i < values.length; i++) {
+            createCell(row, widths, i, values[i], columnStyles[i]);
+        }
+    }
+
+    /**
+     * Egy szállítmány 21 exportált értéke (a számított oszlopokkal együtt), az xlsx és a CSV formátum közösen használja.
+     */
+    private void exportValues(ShipmentExportRowDTO shipment, Object[] values) {
         String rawCode = shipment.getDeliveryCode() != null ? shipment.getDeliveryCode() : "";
 
-        Long partnerId = shipment.getLocation().getPartner().getId();
-        String partnerName = shipment.getLocation().getPartner().getName();
+        Long partnerId = shipment.getPartnerId();
+        String partnerName = shipment.getPartnerName();
 
         String prefix = partnerId + "/";
         String finalCode = rawCode.startsWith(prefix) ? rawCode : prefix + rawCode;
         String fullNameCode = partnerName + " " + finalCode;
 
         String growerText = "";
-        Grower g = shipment.getGrower();
-        if (g != null) {
-            growerText = g.getName() + " " + (g.getCity() != null ? g.getCity() : "");
+        if (shipment.getGrowerName() != null) {
+            growerText = shipment.getGrowerName() + " " + (shipment.getGrowerCity() != null ? shipment.getGrowerCity() : "");
         }
-        createCell(row, 0, growerText, dataStyle);
-
-        createCell(row, 1, fullNameCode, dataStyle);
-
-        createCell(row, 2, shipment.getLocation().getCity(), dataStyle);
-        createCell(row, 3, shipment.getLocation().getCounty(), dataStyle);
-
-        createCell(row, 4, formatDate(shipment.getDeliveryDate()), dataStyle);
+        values[0] = growerText;
+        values[1] = fullNameCode;
+        values[2] = shipment.getLocationCity();
+        values[3] = shipment.getLocationCounty();
+        values[4] = formatDate(shipment.getDeliveryDate());
 
         int befogoDb = shipment.getQuantity() != null ? shipment.getQuantity() : 0;
         double befogoKg = shipment.getTotalWeight() != null ? shipment.getTotalWeight() : 0.0;
@@ -84,11 +343,11 @@ public class ShipmentExportService {
         int utihullaDb = shipment.getTransportMortality() != null ? shipment.getTransportMortality() : 0;
         double utihullaKg = shipment.getTransportMortalityKg() != null ? shipment.getTransportMortalityKg() : 0.0;
 
-        createCell(row, 5, befogoDb, dataStyle);
-        createCell(row, 6, befogoKg, decimalStyle);
+        values[5] = befogoDb;
+        values[6] = befogoKg;
 
         double atlagKg = (befogoDb > 0) ? befogoKg / befogoDb : 0.0;
-        createCell(row, 7, atlagKg, decimalStyle);
+        values[7] = atlagKg;
 
         int calculatedWeek;
         if (shipment.getProcessingDate() != null) {
@@ -96,44 +355,38 @@ public class ShipmentExportService {
         } else {
             calculatedWeek = shipment.getProcessingWeek() != null ? shipment.getProcessingWeek() : 0;
         }
-        createCell(row, 8, calculatedWeek, dataStyle);
-        createCell(row, 9, formatDate(shipment.getProcessingDate()), dataStyle);
+        values[8] = calculatedWeek;
+        values[9] = formatDate(shipment.getProcessingDate());
 
         int beszallitottDb = befogoDb - elhullasDb;
-        createCell(row, 10, beszallitottDb, dataStyle);
+        values[10] = beszallitottDb;
 
         double beszallitottKg = shipment.getNetWeight() != null ? shipment.getNetWeight() : 0.0;
-        createCell(row, 11, beszallitottKg, decimalStyle);
+        values[11] = beszallitottKg;
 
         double leadottAtlag = (beszallitottDb > 0) ? beszallitottKg / beszallitottDb : 0.0;
-        createCell(row, 12, leadottAtlag, decimalStyle);
+        values[12] = leadottAtlag;
 
-        createCell(row, 13, utihullaDb, dataStyle);
-        createCell(row, 14, utihullaKg, decimalStyle);
-        createCell(row, 15, shipment.getKosherPercent(), decimalStyle);
-        createCell(row, 16, shipment.getLiverWeight(), decimalStyle);
-        createCell(row, 17, shipment.getFatteningRate(), decimalStyle);
-        createCell(row, 18, elhullasDb, dataStyle);
+        values[13] = utihullaDb;
+        values[14] = utihullaKg;
+        values[15] = shipment.getKosherPercent();
+        values[16] = shipment.getLiverWeight();
+        values[17] = shipment.getFatteningRate();
+        values[18] = elhullasDb;
 
         double calculatedMortalityRate = (befogoDb > 0) ? ((double) elhullasDb / befogoDb) : 0.0;
-        createCell(row, 19, calculatedMortalityRate, percentStyle);
-        createCell(row, 20, shipment.getFatteningDays(), dataStyle);
+        values[19] = calculatedMortalityRate;
+        values[20] = shipment.getFatteningDays();
     }
 
-    private void createHeaderRow(Sheet sheet, CellStyle style) {
+    private void createHeaderRow(Sheet sheet, CellStyle style, ColumnWidthTracker widths) {
         Row headerRow = sheet.createRow(0);
         headerRow.setHeightInPoints(45);
         for (int i = 0; i < COLUMNS.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(COLUMNS[i]);
             cell.setCellStyle(style);
-        }
-    }
-
-    private void autoSizeColumns(Sheet sheet) {
-        for (int i = 0; i < COLUMNS.length; i++) {
-            sheet.autoSizeColumn(i);
-            sheet.setColumnWidth(i, sheet.getColumnWidth(i) + 1000);
+            widths.text(i, COLUMNS[i]);
         }
     }
 
@@ -180,16 +433,46 @@ public class ShipmentExportService {
         style.setBorderLeft(BorderStyle.THIN);
     }
 
-    private void createCell(Row row, int col, Object value, CellStyle style) {
+    private void createCell(Row row, ColumnWidthTracker widths, int col, Object value, CellStyle style) {
         Cell cell = row.createCell(col);
         cell.setCellStyle(style);
-        if (value == null) cell.setCellValue(0);
-        else if (value instanceof Integer) cell.setCellValue((Integer) value);
-        else if (value instanceof Double) cell.setCellValue((Double) value);
-        else cell.setCellValue(value.toString());
+        if (value == null) {
+            cell.setCellValue(0);
+            widths.integer(col, 0);
+        } else if (value instanceof Integer i) {
+            cell.setCellValue(i);
+            widths.integer(col, i);
+        } else if (value instanceof Double d) {
+            cell.setCellValue(d);
+            boolean percent = col == PERCENT_COLUMN;
+            widths.decimal(col, percent ? d * 100 : d, 2, percent ? 1 : 0);
+        } else {
+            String text = value.toString();
+            cell.setCellValue(text);
+            widths.text(col, text);
+        }
     }
 
     private String formatDate(LocalDate date) {
         return date != null ? date.toString().replace("-", ".") : "";
     }
-}
\ No newline at end of file
+
+    /**
+     * A gzip lezárása kiírja a záró blokkot, de a servlet streamet a konténer zárja le.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
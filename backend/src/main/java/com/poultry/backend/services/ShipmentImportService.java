@@ -1,5 +1,6 @@
 package com.poultry.backend.services;
 
+import com.poultry.backend.dtos.ImportDryRunResult;
 import com.poultry.backend.dtos.ImportResult;
 import com.poultry.backend.entities.Grower;
 import com.poultry.backend.entities.Partner;
@@ -9,19 +10,42 @@ import com.poultry.backend.repositories.GrowerRepository;
 import com.poultry.backend.repositories.PartnerLocationRepository;
 import com.poultry.backend.repositories.PartnerRepository;
 import com.poultry.backend.repositories.ShipmentRepository;
-import com.poultry.backend.utils.ExcelHelper;
+import com.poultry.backend.utils.StreamingCsvReader;
+import com.poultry.backend.utils.SheetRow;
+import com.poultry.backend.utils.StreamingSheetReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -31,233 +55,459 @@ public class ShipmentImportService {
     private final ShipmentRepository shipmentRepository;
     private final PartnerLocationRepository partnerLocationRepository;
     private final GrowerRepository growerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShipmentRowParser rowParser;
+    private final ImportFingerprintService fingerprintService;
+    private final DataVersionService dataVersionService;
+    private final StatsRollupService statsRollupService;
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int PARSE_BATCH_SIZE = 256;
+
+    private static final CompletableFuture<ParsedBatch> END_OF_SHEET = CompletableFuture.completedFuture(null);
+
+    /**
+     * Egyszerre ennyi import (szinkron végpont, háttérfeladat vagy próbafuttatás) futhat; mindegyik egy beolvasó
+     * szálat és a közös feldolgozó szálakat használja.
+     */
+    @Value("${poultry.import.max-concurrent-jobs:1}")
+    private int maxConcurrentImports;
+
+    private ExecutorService parseExecutor;
+    private ExecutorService readerExecutor;
+    private Semaphore importSlots;
+
+    /**
+     * Sorok egy párhuzamosan értelmezett csoportja: a sikeresen értelmezett sorok és a hibák.
+     */
+    private record ParsedBatch(int rowCount, List<ParsedShipmentRow> rows, ImportResult parseErrors) {}
+
+    @FunctionalInterface
+    private interface RowSource {
+        void read(Consumer<SheetRow> rowConsumer) throws IOException;
+    }
 
-    private static final Pattern NAME_CODE_PATTERN = Pattern.compile("^(.*)\\s+(\\d+)/(\\d+)/(\\d+)$");
-    private static final Pattern GROWER_PATTERN = Pattern.compile("^(.*)\\s+([A-ZÁÉÍÓÖŐÚÜŰ]+)$");
-
-    @Transactional
-    public ImportResult importExcel(MultipartFile file) throws IOException {
-        ImportResult result = new ImportResult();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            List<Shipment> shipmentsToSave = new ArrayList<>();
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                try {
-                    Shipment shipment = processRow(row);
-                    if (shipment != null) {
-                        shipmentsToSave.add(shipment);
-                        result.incrementSuccess();
-                    }
-                } catch (Exception e) {
-                    result.addError(i + 1, e.getMessage());
-                }
-            }
-            shipmentRepository.saveAll(shipmentsToSave);
-        }
-        return result;
+    @FunctionalInterface
+    private interface TempFileAction<T> {
+        T apply(Path file) throws IOException;
     }
 
-    private Shipment processRow(Row row) throws Exception {
-        String rawGrowerData = ExcelHelper.getCellString(row, 0);
-        Grower grower = createGrower(rawGrowerData);
+    /**
+     * Az értelmezett csoportokat beolvasási sorrendben, egyetlen szálon kapja meg.
+     */
+    private interface BatchSink {
+        void accept(ParsedBatch batch);
 
-        String rawNameCode = ExcelHelper.getCellString(row, 1);
-        if (rawNameCode == null || rawNameCode.trim().isEmpty()) {
-            return null;
-        }
+        void finish();
+    }
 
-        Matcher matcher = NAME_CODE_PATTERN.matcher(rawNameCode.trim());
-        if (!matcher.find()) {
-            throw new IllegalArgumentException("Hibás Név/Kód formátum a B oszlopban: '" + rawNameCode + "'");
-        }
+    @PostConstruct
+    void startExecutors() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        parseExecutor = Executors.newFixedThreadPool(parallelism, daemonThreads("shipment-import-parse-"));
+        readerExecutor = Executors.newFixedThreadPool(maxConcurrentImports, daemonThreads("shipment-import-reader-"));
+        importSlots = new Semaphore(maxConcurrentImports);
+    }
 
-        String partnerName = matcher.group(1).trim();
-        String partnerIdStr = matcher.group(2);
-        String seqNum = matcher.group(3);
-        String year = matcher.group(4);
+    @PreDestroy
+    void stopExecutors() {
+        parseExecutor.shutdownNow();
+        readerExecutor.shutdownNow();
+    }
 
-        String city = ExcelHelper.getCellString(row, 2);
+    public ImportResult importExcel(MultipartFile file) throws IOException {
+        return withTempFile(file, ".xlsx", path -> runImport(path, excelSource(path), ImportProgress.NONE));
+    }
 
-        String county = ExcelHelper.getCellString(row, 3);
+    public ImportDryRunResult dryRunExcel(MultipartFile file) throws IOException {
+        return withTempFile(file, ".xlsx", path -> dryRun(path, excelSource(path)));
+    }
 
-        Partner partner = getOrCreatePartner(partnerIdStr, partnerName, grower);
-        PartnerLocation location = getOrCreateLocation(partner, city, county);
-        String cleanDeliveryCode = seqNum + "/" + year;
+    /**
+     * A beolvasó szál a sorokat csoportokba gyűjti, a csoportokat a feldolgozó szálak párhuzamosan
+     * értelmezik, az eredményeket pedig a hívó szál egyetlen íróként, beolvasási sorrendben menti.
+     * A korlátos várakozási sor miatt a beolvasás megáll, ha a mentés lemarad.
+     * A háttérfeladatok innen indulnak: szabad importhelyre várnak, nem utasítjuk el őket.
+     */
+    public ImportResult importFile(Path file, ImportProgress progress) throws IOException {
+        acquireSlot();
+        try {
+            return runImport(file, excelSource(file), progress);
+        } finally {
+            importSlots.release();
+        }
+    }
 
-        Shipment shipment = shipmentRepository.findByDeliveryCodeAndLocation(cleanDeliveryCode, location)
-                .orElse(new Shipment());
-        shipment.setGrower(grower);
+    /**
+     * Pontosvesszővel, vesszővel vagy tabulátorral tagolt fájl; az oszlopokat az Excel importhoz hasonlóan
+     * a fejlécsor alapján azonosítjuk.
+     */
+    public ImportResult importCsv(MultipartFile file, String charsetName) throws IOException {
+        Charset charset = parseCharset(charsetName);
+        return withTempFile(file, ".csv", path -> runImport(path, csvSource(path, charset), ImportProgress.NONE));
+    }
 
-        fillShipmentData(shipment, location, cleanDeliveryCode, row);
+    public ImportDryRunResult dryRunCsv(MultipartFile file, String charsetName) throws IOException {
+        Charset charset = parseCharset(charsetName);
+        return withTempFile(file, ".csv", path -> dryRun(path, csvSource(path, charset)));
+    }
 
-        return shipment;
+    private RowSource excelSource(Path file) {
+        return consumer -> StreamingSheetReader.readFirstSheet(file.toFile(), consumer);
     }
 
-    private Grower createGrower(String rawGrowerData) {
-        if (rawGrowerData == null || rawGrowerData.trim().isEmpty()) {
-            return null;
+    private RowSource csvSource(Path file, Charset charset) {
+        return consumer -> StreamingCsvReader.read(file, charset, consumer);
+    }
+
+    /**
+     * A CSV olvasó bájtonként keresi a határolókat, ezért csak ASCII-kompatibilis kódolást fogadunk el.
+     */
+    private Charset parseCharset(String charsetName) {
+        Charset charset;
+        try {
+            charset = Charset.forName(charsetName);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ismeretlen karakterkódolás: " + charsetName);
         }
+        if (!StreamingCsvReader.supports(charset)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Nem támogatott karakterkódolás: " + charsetName + " (csak ASCII-kompatibilis kódolás használható, pl. UTF-8)");
+        }
+        return charset;
+    }
 
-        String trimmedData = rawGrowerData.trim();
-        String gName = trimmedData;
-        String gCity = "";
-        Matcher m = GROWER_PATTERN.matcher(trimmedData);
-        if (m.find()) {
-            gName = m.group(1).trim();
-            gCity = m.group(2).trim();
+    /**
+     * A szinkron végpontok nem várakoznak: ha minden importhely foglalt, a feltöltést el sem mentjük, hanem
+     * 503-mal válaszolunk, ahogy a háttérfeladatok megtelt sora esetén is.
+     */
+    private <T> T withTempFile(MultipartFile file, String suffix, TempFileAction<T> action) throws IOException {
+        if (!importSlots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Túl sok importálás van folyamatban, próbáld újra később!");
         }
+        try {
+            Path tempFile = Files.createTempFile("shipment-import-", suffix);
+            try {
+                file.transferTo(tempFile);
+                return action.apply(tempFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } finally {
+            importSlots.release();
+        }
+    }
 
-        return getOrCreateGrower(gName, gCity);
+    private void acquireSlot() throws IOException {
+        try {
+            importSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Az importálás megszakadt", e);
+        }
     }
 
-    private Grower getOrCreateGrower(String name, String city) {
-        return growerRepository.findByNameAndCity(name, city)
-                .orElseGet(() -> {
-                    Grower g = new Grower();
-                    g.setName(name);
-                    g.setCity(city);
-                    return growerRepository.save(g);
-                });
+    /**
+     * A már hibátlanul importált, azóta változatlan fájlt nem dolgozzuk fel újra.
+     */
+    private ImportResult runImport(Path file, RowSource source, ImportProgress progress) throws IOException {
+        long generation = fingerprintService.currentGeneration();
+        String fingerprint = fingerprintService.fingerprint(file);
+        if (fingerprintService.isImported(fingerprint)) {
+            ImportResult result = new ImportResult();
+            result.setAlreadyImported(true);
+            return result;
+        }
+
+        ImportRun run = new ImportRun(progress);
+        try {
+            runPipeline(source, run);
+        } finally {
+            dataVersionService.bump();
+        }
+        if (run.result.getFailedCount() == 0) {
+            fingerprintService.record(fingerprint, run.result.getSuccessCount(), generation);
+        }
+        return run.result;
     }
 
-    private Partner getOrCreatePartner(String partnerIdStr, String partnerName, Grower grower) {
-        long pId = Long.parseLong(partnerIdStr);
-
-        return partnerRepository.findById(pId)
-                .map(p -> {
-                    if (grower != null) {
-                        boolean alreadyLinked = p.getGrowers().stream()
-                                .anyMatch(g -> g.getId().equals(grower.getId()));
-
-                        if (!alreadyLinked) {
-                            p.getGrowers().add(grower);
-                            return partnerRepository.save(p);
-                        }
-                    }
-                    return p;
-                })
-                .orElseGet(() -> {
-                    Partner newP = new Partner();
-                    newP.setId(pId);
-                    newP.setName(partnerName);
-                    if (grower != null) {
-                        newP.getGrowers().add(grower);
-                    }
-                    return partnerRepository.save(newP);
-                });
+    /**
+     * Ugyanaz a beolvasás és párhuzamos értelmezés, de az író oldal helyett a sorokat a törzsadatok
+     * egyszeri, csak olvasható pillanatképén ellenőrizzük; semmi nem jön létre.
+     */
+    private ImportDryRunResult dryRun(Path file, RowSource source) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        ImportDryRun dryRun = readOnly.execute(status -> {
+            ImportDryRun d = new ImportDryRun();
+            d.preload(growerRepository, partnerRepository, partnerLocationRepository, shipmentRepository);
+            return d;
+        });
+
+        ImportResult result = dryRun.getDryRunResult().getResult();
+        result.setAlreadyImported(fingerprintService.isImported(fingerprintService.fingerprint(file)));
+
+        runPipeline(source, new BatchSink() {
+            @Override
+            public void accept(ParsedBatch batch) {
+                result.merge(batch.parseErrors());
+                batch.rows().forEach(dryRun::validate);
+            }
+
+            @Override
+            public void finish() {
+            }
+        });
+        return dryRun.getDryRunResult();
     }
 
-    private PartnerLocation getOrCreateLocation(Partner partner, String city, String county) {
-        if (city == null || city.trim().isEmpty()) {
-            city = "Ismeretlen";
+    private void runPipeline(RowSource source, BatchSink sink) throws IOException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        BlockingQueue<CompletableFuture<ParsedBatch>> pending = new ArrayBlockingQueue<>(parallelism * 4);
+
+        Future<?> reader = readerExecutor.submit(() -> readSheet(source, pending));
+
+        try {
+            while (true) {
+                CompletableFuture<ParsedBatch> next = pending.take();
+                if (next == END_OF_SHEET) break;
+                sink.accept(next.join());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Az importálás megszakadt", e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IOException("A fájl nem olvasható: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            reader.cancel(true);
+            pending.clear();
         }
 
-        String finalCity = city;
-
-        return partnerLocationRepository.findByPartnerAndCity(partner, finalCity)
-                .map(loc -> {
-                    if (county != null && !county.equals(loc.getCounty())) {
-                        loc.setCounty(county);
-                        return partnerLocationRepository.save(loc);
-                    }
-                    return loc;
-                })
-                .orElseGet(() -> {
-                    PartnerLocation newLoc = new PartnerLocation();
-                    newLoc.setPartner(partner);
-                    newLoc.setCity(finalCity);
-                    newLoc.setCounty(county);
-                    return partnerLocationRepository.save(newLoc);
-                });
+        sink.finish();
     }
 
-    private void fillShipmentData(Shipment shipment, PartnerLocation location, String deliveryCode, Row row) {
-        String currentField = "Ismeretlen mező";
-
+    /**
+     * Az első sor a fejléc: ebből oldjuk fel egyszer az oszlopkiosztást a további sorokhoz.
+     */
+    private void readSheet(RowSource source, BlockingQueue<CompletableFuture<ParsedBatch>> pending) {
+        List<SheetRow> batch = new ArrayList<>(PARSE_BATCH_SIZE);
+        ShipmentColumnMapping[] columns = {ShipmentColumnMapping.DEFAULT};
         try {
-            shipment.setLocation(location);
-            shipment.setDeliveryCode(deliveryCode);
+            source.read(row -> {
+                if (row.getRowNum() == 0) {
+                    columns[0] = ShipmentColumnMapping.fromHeader(row);
+                    return;
+                }
 
-            currentField = "Szállítás dátuma (D oszlop)";
-            shipment.setDeliveryDate(ExcelHelper.getCellDate(row, 4));
+                batch.add(row);
+                if (batch.size() >= PARSE_BATCH_SIZE) {
+                    enqueue(pending, parseAsync(new ArrayList<>(batch), columns[0]));
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                enqueue(pending, parseAsync(batch, columns[0]));
+            }
+            enqueue(pending, END_OF_SHEET);
+        } catch (IOException e) {
+            enqueue(pending, CompletableFuture.failedFuture(new UncheckedIOException(e)));
+        } catch (RuntimeException e) {
+            enqueue(pending, CompletableFuture.failedFuture(e));
+        }
+    }
 
-            currentField = "Befogott db (E oszlop)";
-            int quantity = (int) ExcelHelper.getCellNum(row, 5);
-            shipment.setQuantity(quantity);
+    private CompletableFuture<ParsedBatch> parseAsync(List<SheetRow> rows, ShipmentColumnMapping columns) {
+        return CompletableFuture.supplyAsync(() -> parseBatch(rows, columns), parseExecutor);
+    }
 
-            currentField = "Befogott súly (F oszlop)";
-            double totalWeight = ExcelHelper.getCellNum(row, 6);
-            shipment.setTotalWeight(totalWeight);
+    private ParsedBatch parseBatch(List<SheetRow> rows, ShipmentColumnMapping columns) {
+        List<ParsedShipmentRow> parsed = new ArrayList<>(rows.size());
+        ImportResult errors = new ImportResult();
+        for (SheetRow row : rows) {
+            try {
+                ParsedShipmentRow p = rowParser.parse(row, columns, errors);
+                if (p != null) parsed.add(p);
+            } catch (Exception e) {
+                errors.addError(row.getRowNum() + 1, e.getMessage());
+            }
+        }
+        return new ParsedBatch(rows.size(), parsed, errors);
+    }
 
-            currentField = "Vágási hét (H oszlop)";
-            shipment.setProcessingWeek((int) ExcelHelper.getCellNum(row, 8));
+    private void enqueue(BlockingQueue<CompletableFuture<ParsedBatch>> pending, CompletableFuture<ParsedBatch> batch) {
+        try {
+            pending.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Az importálás megszakadt", e);
+        }
+    }
 
-            currentField = "Vágás dátuma (I oszlop)";
-            shipment.setProcessingDate(ExcelHelper.getCellDate(row, 9));
+    private ImportResolutionCache loadCache() {
+        return transactionTemplate.execute(status -> {
+            ImportResolutionCache cache = new ImportResolutionCache(
+                    growerRepository, partnerRepository, partnerLocationRepository, shipmentRepository);
+            cache.preload();
+            return cache;
+        });
+    }
 
+    /**
+     * Az író oldal állapota: az értelmezett sorokat kötegekbe gyűjti, és minden köteget
+     * külön tranzakcióban ment és véglegesít.
+     */
+    private class ImportRun implements BatchSink {
+        private final ImportProgress progress;
+        private final ImportResult result = new ImportResult();
+        private final List<ParsedShipmentRow> buffer = new ArrayList<>(CHUNK_SIZE);
+        private ImportResolutionCache cache = loadCache();
+        private int rowsProcessed = 0;
+
+        ImportRun(ImportProgress progress) {
+            this.progress = progress;
+        }
 
-            currentField = "Beszállított db (J oszlop)";
-            int netQty = (int) ExcelHelper.getCellNum(row, 10);
+        @Override
+        public void accept(ParsedBatch batch) {
+            result.merge(batch.parseErrors());
+            rowsProcessed += batch.rowCount();
 
-            currentField = "Beszállított kg (K oszlop)";
-            double netWeight = ExcelHelper.getCellNum(row, 11);
+            for (ParsedShipmentRow row : batch.rows()) {
+                buffer.add(row);
+                if (buffer.size() >= CHUNK_SIZE) {
+                    commitChunk();
+                }
+            }
+        }
 
-            currentField = "Útihulla db (M oszlop)";
-            int transMort = (int) ExcelHelper.getCellNum(row, 13);
-            shipment.setTransportMortality(transMort);
+        @Override
+        public void finish() {
+            commitChunk();
+        }
 
-            currentField = "Útihulla kg (N oszlop)";
-            double transMortKg = ExcelHelper.getCellNum(row, 14);
-            shipment.setTransportMortalityKg(transMortKg);
+        void commitChunk() {
+            if (buffer.isEmpty()) return;
 
-            if (netQty == 0 && quantity > 0) {
-                netQty = quantity - transMort;
+            ImportResult chunkResult = new ImportResult();
+            try {
+                transactionTemplate.executeWithoutResult(status -> processChunk(buffer, cache, chunkResult));
+                result.merge(chunkResult);
+            } catch (Exception e) {
+                for (ParsedShipmentRow row : buffer) {
+                    result.addError(row.rowNum(), "Hiba a mentés során: " + e.getMessage());
+                }
+                cache = loadCache();
             }
-            if (netWeight == 0.0 && totalWeight > 0) {
-                netWeight = totalWeight - transMortKg;
+
+            buffer.clear();
+            progress.chunkCommitted(rowsProcessed, result);
+        }
+    }
+
+    private void processChunk(List<ParsedShipmentRow> rows, ImportResolutionCache cache, ImportResult result) {
+        Map<ImportResolutionCache.ShipmentKey, Shipment> chunk = new LinkedHashMap<>();
+
+        for (ParsedShipmentRow row : rows) {
+            try {
+                Shipment shipment = resolveRow(row, cache);
+                ImportResolutionCache.ShipmentKey key = new ImportResolutionCache.ShipmentKey(
+                        shipment.getDeliveryCode(), shipment.getLocation().getId());
+                Shipment pending = chunk.get(key);
+                if (pending != null) {
+                    copyShipmentData(shipment, pending);
+                } else if (cache.isUnchanged(shipment.getDeliveryCode(), shipment.getLocation(), shipment.getContentHash())) {
+                    result.incrementUnchanged();
+                } else {
+                    chunk.put(key, shipment);
+                }
+                result.incrementSuccess();
+            } catch (Exception e) {
+                result.addError(row.rowNum(), e.getMessage());
             }
+        }
 
-            shipment.setNetQuantity(netQty);
-            shipment.setNetWeight(netWeight);
+        saveChunk(chunk.values(), cache);
+    }
 
-            currentField = "Kóser % (O oszlop)";
-            shipment.setKosherPercent(ExcelHelper.getCellNum(row, 15));
+    private void saveChunk(Collection<Shipment> parsedShipments, ImportResolutionCache cache) {
+        if (parsedShipments.isEmpty()) return;
 
-            currentField = "Máj súly (P oszlop)";
-            shipment.setLiverWeight(ExcelHelper.getCellNum(row, 16));
+        List<Long> existingIds = new ArrayList<>();
+        for (Shipment parsed : parsedShipments) {
+            Long id = cache.findShipmentId(parsed.getDeliveryCode(), parsed.getLocation());
+            if (id != null) existingIds.add(id);
+        }
 
-            currentField = "Ráhízás (Q oszlop)";
-            double fatRate = ExcelHelper.getCellNum(row, 17);
+        Map<Long, Shipment> existingById = new HashMap<>();
+        for (Shipment existing : shipmentRepository.findAllById(existingIds)) {
+            existingById.put(existing.getId(), existing);
+        }
 
-            if (fatRate == 0.0 && quantity > 0 && netQty > 0) {
-                double avgGross = totalWeight / quantity;
-                double avgNet = netWeight / netQty;
-                fatRate = avgNet - avgGross;
+        StatsRollupService.Delta rollupDelta = new StatsRollupService.Delta();
+        List<Shipment> shipmentsToSave = new ArrayList<>(parsedShipments.size());
+        for (Shipment parsed : parsedShipments) {
+            Long id = cache.findShipmentId(parsed.getDeliveryCode(), parsed.getLocation());
+            Shipment existing = id != null ? existingById.get(id) : null;
+            if (existing != null) {
+                rollupDelta.remove(existing);
+                copyShipmentData(parsed, existing);
+                shipmentsToSave.add(existing);
+            } else {
+                shipmentsToSave.add(parsed);
             }
-            shipment.setFatteningRate(fatRate);
+        }
 
-            currentField = "Elhullás db (R oszlop)";
-            int mortCount = (int) ExcelHelper.getCellNum(row, 18);
-            shipment.setMortalityCount(mortCount);
+        for (Shipment saved : shipmentRepository.saveAll(shipmentsToSave)) {
+            cache.registerShipment(saved.getDeliveryCode(), saved.getLocation(), saved.getId(), saved.getContentHash());
+            rollupDelta.add(saved);
+        }
+        statsRollupService.apply(rollupDelta);
+    }
 
-            currentField = "Elhullás % (S oszlop)";
-            double mortRate = ExcelHelper.getCellNum(row, 19) * 100;
+    private void copyShipmentData(Shipment source, Shipment target) {
+        BeanUtils.copyProperties(source, target, "id");
+    }
 
-            if (mortRate == 0.0 && quantity > 0 && mortCount > 0) {
-                mortRate = (double) mortCount / quantity * 100.0;
-            }
-            shipment.setMortalityRate(mortRate);
+    private Shipment resolveRow(ParsedShipmentRow row, ImportResolutionCache cache) {
+        Grower grower = row.hasGrower() ? cache.getOrCreateGrower(row.growerName(), row.growerCity()) : null;
+        Partner partner = cache.getOrCreatePartner(row.partnerId(), row.partnerName(), grower);
+        PartnerLocation location = cache.getOrCreateLocation(partner, row.city(), row.county());
+
+        Shipment shipment = new Shipment();
+        shipment.setGrower(grower);
+        fillShipmentData(shipment, location, row);
+        return shipment;
+    }
 
-            currentField = "Tömés napok (T oszlop)";
-            shipment.setFatteningDays((int) ExcelHelper.getCellNum(row, 20));
+    private void fillShipmentData(Shipment shipment, PartnerLocation location, ParsedShipmentRow row) {
+        shipment.setLocation(location);
+        shipment.setDeliveryCode(row.deliveryCode());
+        shipment.setDeliveryDate(row.deliveryDate());
+        shipment.setQuantity(row.quantity());
+        shipment.setTotalWeight(row.totalWeight());
+        shipment.setProcessingWeek(row.processingWeek());
+        shipment.setProcessingDate(row.processingDate());
+        shipment.setTransportMortality(row.transportMortality());
+        shipment.setTransportMortalityKg(row.transportMortalityKg());
+        shipment.setNetQuantity(row.netQuantity());
+        shipment.setNetWeight(row.netWeight());
+        shipment.setKosherPercent(row.kosherPercent());
+        shipment.setLiverWeight(row.liverWeight());
+        shipment.setFatteningRate(row.fatteningRate());
+        shipment.setMortalityCount(row.mortalityCount());
+        shipment.setMortalityRate(row.mortalityRate());
+        shipment.setFatteningDays(row.fatteningDays());
+        shipment.setContentHash(row.contentHash());
+    }
 
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Hiba a következő adatnál: '" + currentField + "'.");
-        }
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
     }
-}
\ No newline at end of file
+}
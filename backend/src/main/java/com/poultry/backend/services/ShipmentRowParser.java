@@ -0,0 +1,136 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.ImportResult;
+import com.poultry.backend.utils.SheetRow;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.poultry.backend.services.ShipmentColumn.*;
+
+@Component
+public class ShipmentRowParser {
+
+    private static final Pattern NAME_CODE_PATTERN = Pattern.compile("^(.*)\\s+(\\d+)/(\\d+)/(\\d+)$");
+    private static final Pattern GROWER_PATTERN = Pattern.compile("^(.*)\\s+([A-ZÁÉÍÓÖŐÚÜŰ]+)$");
+
+    /**
+     * A számként olvasott oszlopok a hibaellenőrzés sorrendjében.
+     */
+    private static final ShipmentColumn[] NUMERIC_COLUMNS = {
+            QUANTITY, TOTAL_WEIGHT, PROCESSING_WEEK, NET_QUANTITY, NET_WEIGHT, TRANSPORT_MORTALITY,
+            TRANSPORT_MORTALITY_KG, KOSHER_PERCENT, LIVER_WEIGHT, FATTENING_RATE, MORTALITY_COUNT,
+            MORTALITY_RATE, FATTENING_DAYS
+    };
+
+    /**
+     * Üres Név/Kód esetén null-t ad vissza. Hibás sor esetén is null-t ad, a hibát és a hibás
+     * oszlopot pedig az {@code errors}-ba jegyzi fel; cellánként nem dob kivételt.
+     */
+    public ParsedShipmentRow parse(SheetRow row, ShipmentColumnMapping columns, ImportResult errors) {
+        int rowNum = row.getRowNum() + 1;
+
+        String rawNameCode = columns.text(row, NAME_CODE).trim();
+        if (rawNameCode.isEmpty()) {
+            return null;
+        }
+
+        Matcher matcher = NAME_CODE_PATTERN.matcher(rawNameCode);
+        if (!matcher.find()) {
+            errors.addColumnFailure(NAME_CODE.getLabel());
+            errors.addError(rowNum, "Hibás Név/Kód formátum a " + columns.columnLetter(NAME_CODE)
+                    + " oszlopban: '" + columns.text(row, NAME_CODE) + "'");
+            return null;
+        }
+
+        String partnerName = matcher.group(1).trim();
+        long partnerId = Long.parseLong(matcher.group(2));
+        String deliveryCode = matcher.group(3) + "/" + matcher.group(4);
+
+        String growerName = null;
+        String growerCity = null;
+        String rawGrowerData = columns.text(row, GROWER).trim();
+        if (!rawGrowerData.isEmpty()) {
+            growerName = rawGrowerData;
+            growerCity = "";
+            Matcher m = GROWER_PATTERN.matcher(growerName);
+            if (m.find()) {
+                growerName = m.group(1).trim();
+                growerCity = m.group(2).trim();
+            }
+        }
+
+        String city = columns.text(row, CITY);
+        if (city.trim().isEmpty()) {
+            city = "Ismeretlen";
+        }
+        String county = columns.text(row, COUNTY);
+
+        double[] numbers = new double[ShipmentColumn.values().length];
+        for (ShipmentColumn column : NUMERIC_COLUMNS) {
+            double value = columns.number(row, column);
+            if (Double.isNaN(value)) {
+                errors.addColumnFailure(column.getLabel());
+                errors.addError(rowNum, "Hiba a következő adatnál: '" + columns.describe(column) + "'.");
+                return null;
+            }
+            numbers[column.ordinal()] = value;
+        }
+
+        LocalDate deliveryDate = readDate(row, columns, DELIVERY_DATE, errors);
+        LocalDate processingDate = readDate(row, columns, PROCESSING_DATE, errors);
+
+        int quantity = (int) numbers[QUANTITY.ordinal()];
+        double totalWeight = numbers[TOTAL_WEIGHT.ordinal()];
+        int processingWeek = (int) numbers[PROCESSING_WEEK.ordinal()];
+        int netQty = (int) numbers[NET_QUANTITY.ordinal()];
+        double netWeight = numbers[NET_WEIGHT.ordinal()];
+        int transMort = (int) numbers[TRANSPORT_MORTALITY.ordinal()];
+        double transMortKg = numbers[TRANSPORT_MORTALITY_KG.ordinal()];
+
+        if (netQty == 0 && quantity > 0) {
+            netQty = quantity - transMort;
+        }
+        if (netWeight == 0.0 && totalWeight > 0) {
+            netWeight = totalWeight - transMortKg;
+        }
+
+        double kosherPercent = numbers[KOSHER_PERCENT.ordinal()];
+        double liverWeight = numbers[LIVER_WEIGHT.ordinal()];
+        double fatRate = numbers[FATTENING_RATE.ordinal()];
+
+        if (fatRate == 0.0 && quantity > 0 && netQty > 0) {
+            double avgGross = totalWeight / quantity;
+            double avgNet = netWeight / netQty;
+            fatRate = avgNet - avgGross;
+        }
+
+        int mortCount = (int) numbers[MORTALITY_COUNT.ordinal()];
+        double mortRate = numbers[MORTALITY_RATE.ordinal()] * 100;
+
+        if (mortRate == 0.0 && quantity > 0 && mortCount > 0) {
+            mortRate = (double) mortCount / quantity * 100.0;
+        }
+
+        int fatteningDays = (int) numbers[FATTENING_DAYS.ordinal()];
+
+        return new ParsedShipmentRow(rowNum, growerName, growerCity, partnerId, partnerName,
+                city, county, deliveryCode, deliveryDate, quantity, totalWeight, processingWeek, processingDate,
+                netQty, netWeight, transMort, transMortKg, kosherPercent, liverWeight, fatRate,
+                mortCount, mortRate, fatteningDays);
+    }
+
+    /**
+     * Az értelmezhetetlen dátum (mint eddig) üresen marad, de oszlophibaként számoljuk.
+     */
+    private LocalDate readDate(SheetRow row, ShipmentColumnMapping columns, ShipmentColumn column, ImportResult errors) {
+        LocalDate date = columns.date(row, column);
+        if (date == ShipmentColumnMapping.INVALID_DATE) {
+            errors.addColumnFailure(column.getLabel());
+            return null;
+        }
+        return date;
+    }
+}
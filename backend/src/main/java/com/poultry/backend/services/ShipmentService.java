@@ -24,7 +24,11 @@ public class ShipmentService {
     private final ShipmentRepository shipmentRepository;
     private final PartnerLocationRepository partnerLocationRepository;
     private final GrowerRepository growerRepository;
+    private final ImportFingerprintService importFingerprintService;
+    private final DataVersionService dataVersionService;
+    private final StatsRollupService statsRollupService;
 
+    @Transactional
     public Shipment createShipment(CreateShipmentDTO createShipment) {
         validateAndFixDeliveryCode(createShipment);
         validateNumericFields(createShipment);
@@ -56,7 +60,13 @@ public class ShipmentService {
 
         mapDtoToEntity(createShipment, shipment);
 
-        return shipmentRepository.save(shipment);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
+        Shipment saved = shipmentRepository.save(shipment);
+        StatsRollupService.Delta delta = new StatsRollupService.Delta();
+        delta.add(saved);
+        statsRollupService.apply(delta);
+        return saved;
     }
 
     @Transactional
@@ -69,6 +79,8 @@ public class ShipmentService {
 
         Grower oldGrower = shipment.getGrower();
         Partner oldPartner = shipment.getLocation().getPartner();
+        StatsRollupService.Delta delta = new StatsRollupService.Delta();
+        delta.remove(shipment);
 
         if (shipmentToUpdate.getLocationId() != null &&
                 !shipmentToUpdate.getLocationId().equals(shipment.getLocation().getId())) {
@@ -110,7 +122,13 @@ public class ShipmentService {
         }
 
         mapDtoToEntity(shipmentToUpdate, shipment);
-        return shipmentRepository.save(shipment);
+        shipment.setContentHash(null);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
+        Shipment saved = shipmentRepository.save(shipment);
+        delta.add(saved);
+        statsRollupService.apply(delta);
+        return saved;
     }
 
     public List<Shipment> getHistoryByPartner(Long partnerId) {
@@ -133,8 +151,14 @@ public class ShipmentService {
         return shipmentRepository.findAll();
     }
 
+    @Transactional
     public void deleteShipment(Long id) {
+        StatsRollupService.Delta delta = new StatsRollupService.Delta();
+        shipmentRepository.findById(id).ifPresent(delta::remove);
         shipmentRepository.deleteById(id);
+        statsRollupService.apply(delta);
+        importFingerprintService.invalidate();
+        dataVersionService.bump();
     }
 
     private void mapDtoToEntity(CreateShipmentDTO createShipment, Shipment shipment) {
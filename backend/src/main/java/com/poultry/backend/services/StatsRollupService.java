@@ -0,0 +1,218 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import com.poultry.backend.entities.Shipment;
+import com.poultry.backend.entities.StatsRollup;
+import com.poultry.backend.repositories.ShipmentRepository;
+import com.poultry.backend.repositories.StatsRollupRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * A {@link StatsRollup} táblát tartja karban: a szállítmány-írások változásait (Delta) a hívó
+ * tranzakciójában, atomi UPDATE-ekkel vezeti rá, hiba vagy eltérés esetén pedig teljesen újraépíti.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatsRollupService {
+
+    private static final Comparator<StatsRollup.Key> KEY_ORDER =
+            Comparator.comparing(StatsRollup.Key::getScope).thenComparing(StatsRollup.Key::getEntityId);
+
+    private final StatsRollupRepository rollupRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void createTransactionTemplate() {
+        newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Egy tranzakció szállítmány-változásainak összesítése: a módosítás előtti állapotot kivonjuk,
+     * az újat hozzáadjuk. Érintett kulcsonként egyetlen UPDATE lesz belőle.
+     */
+    public static class Delta {
+        private final Map<StatsRollup.Key, StatsAggregateDTO> changes = new TreeMap<>(KEY_ORDER);
+
+        public void add(Shipment shipment) {
+            apply(shipment, 1);
+        }
+
+        public void remove(Shipment shipment) {
+            apply(shipment, -1);
+        }
+
+        /**
+         * Egy entitás teljes, már összesített értékeinek kivonása (pl. a törlendő telephelyek szállítmányai).
+         */
+        public void remove(StatsRollup.Scope scope, Long entityId, StatsAggregateDTO removed) {
+            StatsAggregateDTO totals = totals(scope, entityId);
+            totals.setShipmentCount(totals.getShipmentCount() - removed.getShipmentCount());
+            totals.setSumLiverWeight(totals.getSumLiverWeight() - removed.getSumLiverWeight());
+            totals.setCountLiverWeight(totals.getCountLiverWeight() - removed.getCountLiverWeight());
+            totals.setSumKosherPercent(totals.getSumKosherPercent() - removed.getSumKosherPercent());
+            totals.setCountKosherPercent(totals.getCountKosherPercent() - removed.getCountKosherPercent());
+            totals.setSumFatteningRate(totals.getSumFatteningRate() - removed.getSumFatteningRate());
+            totals.setCountFatteningRate(totals.getCountFatteningRate() - removed.getCountFatteningRate());
+            totals.setSumMortalityRate(totals.getSumMortalityRate() - removed.getSumMortalityRate());
+            totals.setCountMortalityRate(totals.getCountMortalityRate() - removed.getCountMortalityRate());
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        private void apply(Shipment shipment, int sign) {
+            if (shipment.getLocation() != null) {
+                change(StatsRollup.Scope.PARTNER, shipment.getLocation().getPartner().getId(), shipment, sign);
+                change(StatsRollup.Scope.LOCATION, shipment.getLocation().getId(), shipment, sign);
+            }
+            if (shipment.getGrower() != null) {
+                change(StatsRollup.Scope.GROWER, shipment.getGrower().getId(), shipment, sign);
+            }
+        }
+
+        private void change(StatsRollup.Scope scope, Long entityId, Shipment shipment, int sign) {
+            StatsAggregateDTO totals = totals(scope, entityId);
+            totals.setShipmentCount(totals.getShipmentCount() + sign);
+            if (shipment.getLiverWeight() != null) {
+                totals.setSumLiverWeight(totals.getSumLiverWeight() + sign * shipment.getLiverWeight());
+                totals.setCountLiverWeight(totals.getCountLiverWeight() + sign);
+            }
+            if (shipment.getKosherPercent() != null) {
+                totals.setSumKosherPercent(totals.getSumKosherPercent() + sign * shipment.getKosherPercent());
+                totals.setCountKosherPercent(totals.getCountKosherPercent() + sign);
+            }
+            if (shipment.getFatteningRate() != null) {
+                totals.setSumFatteningRate(totals.getSumFatteningRate() + sign * shipment.getFatteningRate());
+                totals.setCountFatteningRate(totals.getCountFatteningRate() + sign);
+            }
+            if (shipment.getMortalityRate() != null) {
+                totals.setSumMortalityRate(totals.getSumMortalityRate() + sign * shipment.getMortalityRate());
+                totals.setCountMortalityRate(totals.getCountMortalityRate() + sign);
+            }
+        }
+
+        private StatsAggregateDTO totals(StatsRollup.Scope scope, Long entityId) {
+            return changes.computeIfAbsent(new StatsRollup.Key(scope, entityId), key -> {
+                StatsAggregateDTO empty = new StatsAggregateDTO();
+                empty.setId(entityId);
+                return empty;
+            });
+        }
+    }
+
+    /**
+     * A kulcsokat mindig azonos sorrendben frissíti, hogy párhuzamos írások ne akadjanak össze.
+     */
+    @Transactional
+    public void apply(Delta delta) {
+        delta.changes.forEach((key, change) -> {
+            if (addToRollup(key, change) == 0) {
+                insertEmptyRow(key);
+                addToRollup(key, change);
+            }
+        });
+    }
+
+    private int addToRollup(StatsRollup.Key key, StatsAggregateDTO change) {
+        return rollupRepository.addToRollup(key.getScope(), key.getEntityId(), change.getShipmentCount(),
+                change.getSumLiverWeight(), change.getCountLiverWeight(),
+                change.getSumKosherPercent(), change.getCountKosherPercent(),
+                change.getSumFatteningRate(), change.getCountFatteningRate(),
+                change.getSumMortalityRate(), change.getCountMortalityRate());
+    }
+
+    /**
+     * Az új kulcs üres sora külön, azonnal véglegesített tranzakcióban jön létre. Ha egy párhuzamos írás
+     * megelőzött, a kulcsütközés csak ezt a belső tranzakciót görgeti vissza, a hívóét nem; a hozzáadás
+     * ezután mindkét írásnál a már létező sor UPDATE-je, annak sorzárja alatt.
+     */
+    private void insertEmptyRow(StatsRollup.Key key) {
+        StatsAggregateDTO empty = new StatsAggregateDTO();
+        empty.setId(key.getEntityId());
+        try {
+            newTransaction.executeWithoutResult(status -> rollupRepository.saveAndFlush(StatsRollup.of(key.getScope(), empty)));
+        } catch (DataIntegrityViolationException e) {
+            // egy párhuzamos tranzakció már létrehozta a sort
+        }
+    }
+
+    /**
+     * A telephelyek törlése kaszkádolva viszi a szállítmányaikat is, ezért a törlés előtt kell hívni:
+     * a partner és a nevelők összesítőjéből kivonja a telephelyek szállítmányait, a telephelyek sorait pedig törli.
+     */
+    @Transactional
+    public void removeLocations(Long partnerId, List<Long> locationIds) {
+        if (locationIds.isEmpty()) return;
+        Delta delta = new Delta();
+        shipmentRepository.aggregateStatsByLocationIn(locationIds)
+                .forEach(a -> delta.remove(StatsRollup.Scope.PARTNER, partnerId, a));
+        shipmentRepository.aggregateStatsByGrowerForLocations(locationIds)
+                .forEach(a -> delta.remove(StatsRollup.Scope.GROWER, a.getId(), a));
+        apply(delta);
+        rollupRepository.deleteByScopeAndEntityIds(StatsRollup.Scope.LOCATION, locationIds);
+    }
+
+    /**
+     * A partner törlése előtt hívandó: a nevelők összesítőit csökkenti, a partner és telephelyei sorait törli.
+     */
+    @Transactional
+    public void removePartner(Long partnerId, List<Long> locationIds) {
+        removeLocations(partnerId, locationIds);
+        rollupRepository.deleteByScopeAndEntityIds(StatsRollup.Scope.PARTNER, List.of(partnerId));
+    }
+
+    public Optional<StatsAggregateDTO> find(StatsRollup.Scope scope, Long entityId) {
+        return rollupRepository.findById(new StatsRollup.Key(scope, entityId)).map(StatsRollup::toAggregate);
+    }
+
+    public List<StatsAggregateDTO> findAll(StatsRollup.Scope scope) {
+        return rollupRepository.findByScope(scope).stream().map(StatsRollup::toAggregate).toList();
+    }
+
+    /**
+     * Teljes újraépítés a szállítmánytáblából, csoportosított lekérdezésekkel. Az adatverzió a véglegesítés
+     * után lép, így a ranglista, az export-gyorsítótár és az oszlopos pillanatkép is az új összesítőkre frissül.
+     */
+    @Transactional
+    public void rebuild() {
+        rollupRepository.deleteAllInBatch();
+        List<StatsRollup> rollups = new ArrayList<>();
+        shipmentRepository.aggregateStatsByPartner().forEach(a -> rollups.add(StatsRollup.of(StatsRollup.Scope.PARTNER, a)));
+        shipmentRepository.aggregateStatsByLocation().forEach(a -> rollups.add(StatsRollup.of(StatsRollup.Scope.LOCATION, a)));
+        shipmentRepository.aggregateStatsByGrower().forEach(a -> rollups.add(StatsRollup.of(StatsRollup.Scope.GROWER, a)));
+        rollupRepository.saveAll(rollups);
+        dataVersionService.bump();
+    }
+
+    @Transactional
+    public void clear() {
+        rollupRepository.deleteAllInBatch();
+    }
+
+    /**
+     * A tábla bevezetése előtt rögzített szállítmányokhoz induláskor egyszer felépítjük az összesítőket.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfMissing() {
+        if (rollupRepository.count() == 0 && shipmentRepository.count() > 0) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.poultry.backend.utils;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Cellaértékek értelmezése köztes String és kivétel nélkül. Sikertelen értelmezéskor
+ * a dátum null, a szám NaN.
+ */
+public class CellValues {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CellValues() {}
+
+    /**
+     * éééé.hh.nn, éééé-hh-nn vagy éééé/hh/nn, egyjegyű hónappal/nappal és (pontnál) záró ponttal is.
+     */
+    public static LocalDate parseDate(CharSequence text) {
+        int from = 0;
+        int to = text.length();
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        if (to - from < 8 || to - from > 11) return null;
+
+        int i = from;
+        int year = 0;
+        for (; i < from + 4; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return null;
+            year = year * 10 + (c - '0');
+        }
+        char separator = text.charAt(i++);
+        if (separator != '.' && separator != '-' && separator != '/') return null;
+
+        int month = 0;
+        int digits = 0;
+        while (i < to && isDigit(text.charAt(i)) && digits < 2) {
+            month = month * 10 + (text.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits == 0 || i >= to || text.charAt(i++) != separator) return null;
+
+        int day = 0;
+        digits = 0;
+        while (i < to && isDigit(text.charAt(i)) && digits < 2) {
+            day = day * 10 + (text.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits == 0) return null;
+        if (i < to && text.charAt(i) == '.' && separator == '.') i++;
+        if (i != to) return null;
+
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Az xlsx-ben tárolt számformátum (pont tizedesjel, opcionális kitevő). Legfeljebb 15 értékes
+     * jegy és kitevő nélkül pontosan, String nélkül számol; egyébként a JDK értelmezőjére esik vissza.
+     */
+    public static double parseDouble(CharSequence text) {
+        return parseNumber(text, 0, text.length(), false, false);
+    }
+
+    /**
+     * Kézzel rögzített (pl. CSV) szám: a szélső szóközök és az egész részben az ezres tagoló szóközök
+     * kimaradnak, tizedesjel a pont vagy {@code decimalComma} esetén a vessző is (pl. "1 234,5").
+     * Kitevő és túl hosszú mantissza esetén a JDK értelmezőjére esik vissza; nem szám esetén NaN.
+     */
+    public static double parseDecimal(CharSequence text, boolean decimalComma) {
+        int from = 0;
+        int to = text.length();
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        return parseNumber(text, from, to, decimalComma, true);
+    }
+
+    private static double parseNumber(CharSequence text, int from, int to, boolean decimalComma, boolean localized) {
+        if (from == to) return Double.NaN;
+
+        int i = from;
+        boolean negative = false;
+        char first = text.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        boolean anyDigit = false;
+
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') significantDigits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (inFraction) fractionDigits++;
+                if (significantDigits > 15) return fallbackParse(text, from, to, decimalComma, localized);
+            } else if (!inFraction && (c == '.' || (c == ',' && decimalComma))) {
+                inFraction = true;
+            } else if (localized && c == ' ' && !inFraction) {
+                continue;
+            } else if (!localized || c == 'e' || c == 'E') {
+                return fallbackParse(text, from, to, decimalComma, localized);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!anyDigit || fractionDigits >= POWERS_OF_TEN.length) {
+            return fallbackParse(text, from, to, decimalComma, localized);
+        }
+
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    public static int parseIndex(CharSequence text) {
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return Integer.parseInt(text.toString());
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static double fallbackParse(CharSequence text, int from, int to, boolean decimalComma, boolean localized) {
+        String number = text.subSequence(from, to).toString();
+        if (localized) {
+            number = number.replace(" ", "");
+            if (decimalComma) number = number.replace(',', '.');
+        }
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,67 @@
+package com.poultry.backend.utils;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Íráskor oszloponként követi a leghosszabb megjelenített érték karakterszámát, így a végén
+ * az oszlopszélesség az autoSizeColumn utólagos (minden cellát újramérő) menete nélkül beállítható.
+ * A számok hosszát a formátumból számolja, a formázott szöveg előállítása nélkül.
+ */
+public class ColumnWidthTracker {
+
+    private static final int MAX_WIDTH = 255 * 256;
+
+    private final int[] maxLengths;
+
+    public ColumnWidthTracker(int columnCount) {
+        this.maxLengths = new int[columnCount];
+    }
+
+    public void text(int column, String value) {
+        if (value == null) return;
+        int lineLength = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '\n') {
+                update(column, lineLength);
+                lineLength = 0;
+            } else {
+                lineLength++;
+            }
+        }
+        update(column, lineLength);
+    }
+
+    public void integer(int column, long value) {
+        update(column, digits(value));
+    }
+
+    /**
+     * Tizedes érték adott számú tizedesjeggyel és utótaggal (pl. "%").
+     */
+    public void decimal(int column, double value, int fractionDigits, int suffixLength) {
+        long integerPart = (long) Math.abs(value);
+        int length = digits(integerPart) + (value < 0 ? 1 : 0) + suffixLength;
+        if (fractionDigits > 0) length += fractionDigits + 1;
+        update(column, length);
+    }
+
+    public void applyTo(Sheet sheet, int padding) {
+        for (int i = 0; i < maxLengths.length; i++) {
+            sheet.setColumnWidth(i, Math.min(MAX_WIDTH, (maxLengths[i] + 1) * 256 + padding));
+        }
+    }
+
+    private void update(int column, int length) {
+        if (length > maxLengths[column]) maxLengths[column] = length;
+    }
+
+    private static int digits(long value) {
+        long v = Math.abs(value);
+        int digits = 1;
+        while (v >= 10) {
+            v /= 10;
+            digits++;
+        }
+        return value < 0 ? digits + 1 : digits;
+    }
+}
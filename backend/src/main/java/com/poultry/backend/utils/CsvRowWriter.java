@@ -0,0 +1,91 @@
+package com.poultry.backend.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Pontosvesszővel tagolt CSV sorokat ír a kapott Writer-be. A számokat fix tizedesjegyre kerekítve,
+ * köztes String nélkül formázza (tizedespont), a szöveget csak szükség esetén teszi idézőjelbe.
+ */
+public class CsvRowWriter {
+
+    public static final char DELIMITER = ';';
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private int fieldCount;
+
+    public CsvRowWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void text(String value) {
+        separate();
+        if (value == null) return;
+        if (!needsQuotes(value)) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    public void integer(long value) {
+        separate();
+        line.append(value);
+    }
+
+    /**
+     * Legfeljebb {@code maxFractionDigits} tizedesjegy, a záró nullák nélkül.
+     */
+    public void decimal(double value, int maxFractionDigits) {
+        separate();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            line.append(0);
+            return;
+        }
+        long scale = POWERS_OF_TEN[maxFractionDigits];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) line.append('-');
+        line.append(scaled / scale);
+
+        long fraction = scaled % scale;
+        if (fraction == 0) return;
+        int digits = maxFractionDigits;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        line.append('.');
+        for (long p = POWERS_OF_TEN[digits - 1]; p > fraction && p > 1; p /= 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    public void endRow() throws IOException {
+        line.append('\n');
+        writer.append(line);
+        line.setLength(0);
+        fieldCount = 0;
+    }
+
+    private void separate() {
+        if (fieldCount++ > 0) line.append(DELIMITER);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == DELIMITER || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,217 @@
+package com.poultry.backend.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * KLL típusú, összevonható kvantilis-vázlat. Az értékeket szintekre rendezi: ha egy szint megtelik,
+ * rendezi és minden második elemét kétszeres súllyal egy szinttel feljebb viszi, így a tárolt elemek száma
+ * a k paraméterrel arányos marad, a rangbecslés hibája pedig nagyjából 1,7/k. A min/max pontos.
+ * Két vázlat szintenként összefésülhető, így a csoport vázlata a tagokéból áll elő.
+ */
+public class KllSketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private final List<Level> levels = new ArrayList<>();
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean promoteOdd;
+
+    /** Rendezett értékek és kumulált súlyok; az első kvantilis-kéréskor készül, módosításkor elvész. */
+    private volatile View view;
+
+    private record View(double[] values, long[] cumulativeWeights) {}
+
+    public KllSketch(int k) {
+        this.k = k;
+        levels.add(new Level());
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) return;
+        track(value, value);
+        count++;
+        levels.get(0).add(value);
+        compress();
+    }
+
+    public void merge(KllSketch other) {
+        if (other.count == 0) return;
+        for (int h = 0; h < other.levels.size(); h++) {
+            Level source = other.levels.get(h);
+            Level target = level(h);
+            for (int i = 0; i < source.size; i++) {
+                target.add(source.items[i]);
+            }
+        }
+        track(other.min, other.max);
+        count += other.count;
+        compress();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * A q-adik kvantilis becslése (0 ≤ q ≤ 1); üres vázlatnál NaN.
+     */
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        View current = view();
+        long[] cumulative = current.cumulativeWeights();
+        double target = q * count;
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < target) lo = mid + 1;
+            else hi = mid;
+        }
+        return current.values()[lo];
+    }
+
+    /**
+     * Egyenlő szélességű hisztogram a min és max között; az elemek becsült darabszáma rekeszenként.
+     */
+    public long[] histogram(int bins) {
+        long[] counts = new long[bins];
+        if (count == 0) return counts;
+        double width = (max - min) / bins;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            long weight = 1L << h;
+            for (int i = 0; i < level.size; i++) {
+                int bin = width > 0 ? (int) ((level.items[i] - min) / width) : 0;
+                counts[Math.min(bin, bins - 1)] += weight;
+            }
+        }
+        return counts;
+    }
+
+    private void track(double low, double high) {
+        if (count == 0) {
+            min = low;
+            max = high;
+        } else {
+            min = Math.min(min, low);
+            max = Math.max(max, high);
+        }
+    }
+
+    private Level level(int h) {
+        while (levels.size() <= h) {
+            levels.add(new Level());
+        }
+        return levels.get(h);
+    }
+
+    private int capacity(int h) {
+        int depth = levels.size() - 1 - h;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        view = null;
+        while (retained() > maxRetained()) {
+            for (int h = 0; h < levels.size(); h++) {
+                if (levels.get(h).size >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * A szint párjaiból felváltva az alsó vagy a felső elem kerül eggyel feljebb; páratlan méretnél
+     * a legkisebb elem a szinten marad.
+     */
+    private void compact(int h) {
+        Level level = levels.get(h);
+        Level above = level(h + 1);
+        Arrays.sort(level.items, 0, level.size);
+
+        int start = level.size % 2;
+        int offset = promoteOdd ? 1 : 0;
+        promoteOdd = !promoteOdd;
+        for (int i = start; i + 1 < level.size; i += 2) {
+            above.add(level.items[i + offset]);
+        }
+        level.size = start;
+    }
+
+    private int retained() {
+        int total = 0;
+        for (Level level : levels) {
+            total += level.size;
+        }
+        return total;
+    }
+
+    private int maxRetained() {
+        int total = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    private View view() {
+        View current = view;
+        if (current != null) return current;
+        int n = retained();
+        double[] values = new double[n];
+        long[] weights = new long[n];
+        int idx = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                values[idx] = level.items[i];
+                weights[idx] = 1L << h;
+                idx++;
+            }
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double[] sorted = new double[n];
+        long[] cumulative = new long[n];
+        long running = 0;
+        for (int i = 0; i < n; i++) {
+            sorted[i] = values[order[i]];
+            running += weights[order[i]];
+            cumulative[i] = running;
+        }
+        current = new View(sorted, cumulative);
+        view = current;
+        return current;
+    }
+
+    private static class Level {
+        private double[] items = new double[8];
+        private int size;
+
+        void add(double value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.poultry.backend.utils;
+
+public class SheetRow {
+
+    private final int rowNum;
+    private final Object[] values;
+    private final boolean[] dateFormatted;
+
+    public SheetRow(int rowNum, Object[] values, boolean[] dateFormatted) {
+        this.rowNum = rowNum;
+        this.values = values;
+        this.dateFormatted = dateFormatted;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public Object getValue(int cellIndex) {
+        return cellIndex < values.length ? values[cellIndex] : null;
+    }
+
+    public boolean isDateFormatted(int cellIndex) {
+        return cellIndex < dateFormatted.length && dateFormatted[cellIndex];
+    }
+}
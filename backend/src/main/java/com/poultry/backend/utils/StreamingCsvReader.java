@@ -0,0 +1,271 @@
+package com.poultry.backend.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CSV/TSV fájlt olvas darabonként egy újrahasznált bájtpufferbe (NIO FileChannel), a mezőket
+ * közvetlenül a bájtokból értelmezve. Leképezést nem használ, így az olvasás után a fájl azonnal
+ * törölhető. A számok és a dátumok (pl. 2024.05.12) köztes String nélkül, a {@link CellValues}
+ * szabályaival alakulnak át, szöveget csak a szöveges mezőkhöz hozunk létre. A sorokat ugyanabban
+ * az alakban adja át, mint az Excel olvasó, így az oszlopok jelentése azonos.
+ * Csak ASCII-kompatibilis kódolással működik (pl. UTF-8, ISO-8859-2, windows-1250), mert a
+ * határolókat, számokat és dátumokat egybájtos ASCII értékként keressük.
+ */
+public class StreamingCsvReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * Azok a karakterek, amelyeket a beolvasás közvetlenül bájtként ismer fel.
+     */
+    private static final String STRUCTURAL_CHARS = ";,\t\"\r\n 0123456789.+-/:eE";
+
+    private StreamingCsvReader() {}
+
+    /**
+     * Igaz, ha a kódolás a határolókat, számjegyeket és dátumjeleket ugyanazzal az egy bájttal írja, mint az ASCII
+     * (UTF-16/32 vagy EBCDIC esetén hamis).
+     */
+    public static boolean supports(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        return Arrays.equals(STRUCTURAL_CHARS.getBytes(charset), STRUCTURAL_CHARS.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static void read(Path file, Charset charset, Consumer<SheetRow> rowConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new Parser(channel, charset, rowConsumer).run();
+        }
+    }
+
+    private static class Parser {
+        private static final boolean[] NO_DATE_FLAGS = new boolean[0];
+
+        private final FileChannel channel;
+        private final Charset charset;
+        private final Consumer<SheetRow> rowConsumer;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        private final byte[] chunk = buffer.array();
+        private final List<Object> rowValues = new ArrayList<>();
+        private final FieldChars field = new FieldChars();
+
+        private byte[] scratch = new byte[256];
+        private byte delimiter;
+        private boolean decimalComma;
+        private int pos;
+        private int limit;
+
+        Parser(FileChannel channel, Charset charset, Consumer<SheetRow> rowConsumer) {
+            this.channel = channel;
+            this.charset = charset;
+            this.rowConsumer = rowConsumer;
+        }
+
+        void run() throws IOException {
+            fill();
+            skipByteOrderMark();
+            detectDelimiter();
+
+            int rowNum = 0;
+            while (hasMore()) {
+                rowValues.clear();
+                readLine();
+                if (!isBlankRow()) {
+                    rowConsumer.accept(new SheetRow(rowNum, rowValues.toArray(), NO_DATE_FLAGS));
+                }
+                rowNum++;
+            }
+        }
+
+        /**
+         * A következő darabot olvassa a puffer elejére; fájl végén false.
+         */
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            pos = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+
+        private boolean hasMore() throws IOException {
+            return pos < limit || fill();
+        }
+
+        /**
+         * A következő bájt előjel nélkül, fájl végén -1.
+         */
+        private int peek() throws IOException {
+            return hasMore() ? chunk[pos] & 0xFF : -1;
+        }
+
+        private int next() throws IOException {
+            return hasMore() ? chunk[pos++] & 0xFF : -1;
+        }
+
+        private void skipByteOrderMark() {
+            if (StandardCharsets.UTF_8.equals(charset) && limit >= 3
+                    && chunk[0] == (byte) 0xEF && chunk[1] == (byte) 0xBB && chunk[2] == (byte) 0xBF) {
+                pos = 3;
+            }
+        }
+
+        /**
+         * A fejlécsor alapján, az első beolvasott darabon belül.
+         */
+        private void detectDelimiter() {
+            int semicolons = 0, tabs = 0, commas = 0;
+            boolean quoted = false;
+            for (int i = pos; i < limit; i++) {
+                byte b = chunk[i];
+                if (b == '"') quoted = !quoted;
+                if (quoted) continue;
+                if (b == '\n') break;
+                if (b == ';') semicolons++;
+                else if (b == '\t') tabs++;
+                else if (b == ',') commas++;
+            }
+            if (tabs >= semicolons && tabs >= commas && tabs > 0) delimiter = '\t';
+            else if (semicolons >= commas && semicolons > 0) delimiter = ';';
+            else delimiter = ',';
+            decimalComma = delimiter != ',';
+        }
+
+        private void readLine() throws IOException {
+            while (true) {
+                int length = peek() == '"' ? readQuotedField() : readPlainField();
+                rowValues.add(convertScratch(length));
+
+                int b = next();
+                if (b == delimiter) continue;
+                if (b == '\r' && peek() == '\n') pos++;
+                return;
+            }
+        }
+
+        /**
+         * A mező bájtjait a {@code scratch} elejére másolja (akár több darabon át), és visszaadja a hosszukat.
+         */
+        private int readPlainField() throws IOException {
+            int length = 0;
+            while (hasMore()) {
+                int start = pos;
+                while (pos < limit) {
+                    byte b = chunk[pos];
+                    if (b == delimiter || b == '\n' || b == '\r') break;
+                    pos++;
+                }
+                ensureScratch(length + pos - start);
+                System.arraycopy(chunk, start, scratch, length, pos - start);
+                length += pos - start;
+                if (pos < limit) break;
+            }
+            return length;
+        }
+
+        private int readQuotedField() throws IOException {
+            pos++;
+            int length = 0;
+            int b;
+            while ((b = next()) != -1) {
+                if (b == '"') {
+                    if (peek() == '"') {
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+                ensureScratch(length + 1);
+                scratch[length++] = (byte) b;
+            }
+            while ((b = peek()) != -1) {
+                if (b == delimiter || b == '\n' || b == '\r') break;
+                pos++;
+            }
+            return length;
+        }
+
+        /**
+         * A mező bájtjai a {@code scratch} tömb elején vannak; dátum, szám vagy szöveg lesz belőle.
+         */
+        private Object convertScratch(int length) {
+            int from = 0;
+            int to = length;
+            while (from < to && scratch[from] == ' ') from++;
+            while (to > from && scratch[to - 1] == ' ') to--;
+            if (from == to) return null;
+
+            field.set(from, to);
+            LocalDate date = CellValues.parseDate(field);
+            if (date != null) return date;
+
+            double number = CellValues.parseDecimal(field, decimalComma);
+            if (!Double.isNaN(number)) return number;
+
+            return new String(scratch, from, to - from, charset);
+        }
+
+        private boolean isBlankRow() {
+            for (Object value : rowValues) {
+                if (value != null) return false;
+            }
+            return true;
+        }
+
+        private void ensureScratch(int length) {
+            if (scratch.length < length) {
+                byte[] bigger = new byte[Math.max(length, scratch.length * 2)];
+                System.arraycopy(scratch, 0, bigger, 0, scratch.length);
+                scratch = bigger;
+            }
+        }
+
+        /**
+         * A {@code scratch} egy szakasza bájtonként egy karakterként; a dátumokhoz és számokhoz elég,
+         * mert ezek csak ASCII jelekből állnak, a többi bájt pedig úgysem illeszkedik rájuk.
+         */
+        private final class FieldChars implements CharSequence {
+            private int from;
+            private int to;
+
+            void set(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            public int length() {
+                return to - from;
+            }
+
+            @Override
+            public char charAt(int index) {
+                return (char) (scratch[from + index] & 0xFF);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return new String(scratch, from + start, end - start, StandardCharsets.ISO_8859_1);
+            }
+
+            @Override
+            public String toString() {
+                return new String(scratch, from, to - from, StandardCharsets.ISO_8859_1);
+            }
+        }
+    }
+}
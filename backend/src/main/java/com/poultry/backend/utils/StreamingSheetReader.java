@@ -0,0 +1,204 @@
+package com.poultry.backend.utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Az xlsx első munkalapját SAX-szal, soronként olvassa be, így a teljes munkafüzet
+ * soha nem kerül a memóriába. Minden beolvasott sort azonnal átad a fogyasztónak.
+ * A számokat közvetlenül a karakterpufferből értelmezi, a megosztott szövegeket pedig
+ * indexenként egyszer olvassa ki, így az ismétlődő nevek ugyanazt a String példányt kapják.
+ */
+public class StreamingSheetReader {
+
+    private StreamingSheetReader() {}
+
+    public static void readFirstSheet(File file, Consumer<SheetRow> rowConsumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(sharedStrings, styles, rowConsumer));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Az Excel fájl nem olvasható: " + e.getMessage(), e);
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final Consumer<SheetRow> rowConsumer;
+        private final BitSet knownStyles = new BitSet();
+        private final BitSet dateStyles = new BitSet();
+        private final String[] sharedStringCache;
+
+        private final List<Object> rowValues = new ArrayList<>();
+        private boolean[] rowDateFlags = new boolean[32];
+        private final StringBuilder text = new StringBuilder();
+
+        private int currentRow = -1;
+        private int nextColumn;
+        private int currentColumn;
+        private String cellType;
+        private boolean cellIsDate;
+        private boolean capturing;
+        private boolean hasValue;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, Consumer<SheetRow> rowConsumer) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.rowConsumer = rowConsumer;
+            this.sharedStringCache = new String[Math.max(sharedStrings.getUniqueCount(), 0)];
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    currentRow = r != null ? Integer.parseInt(r) - 1 : currentRow + 1;
+                    nextColumn = 0;
+                    rowValues.clear();
+                    Arrays.fill(rowDateFlags, false);
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    currentColumn = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = currentColumn + 1;
+                    cellType = attributes.getValue("t");
+                    cellIsDate = isDateStyle(attributes.getValue("s"));
+                    hasValue = false;
+                    text.setLength(0);
+                }
+                case "v", "t" -> {
+                    capturing = true;
+                    hasValue = true;
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capturing) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> capturing = false;
+                case "c" -> {
+                    if (hasValue) {
+                        setCell(convertValue());
+                    }
+                }
+                case "row" -> emitRow();
+                default -> {
+                }
+            }
+        }
+
+        private Object convertValue() {
+            if (cellType == null || "n".equals(cellType)) {
+                double number = CellValues.parseDouble(text);
+                return Double.isNaN(number) ? text.toString() : number;
+            }
+            return switch (cellType) {
+                case "s" -> sharedString(CellValues.parseIndex(text));
+                case "b" -> text.length() == 1 && text.charAt(0) == '1';
+                default -> text.toString();
+            };
+        }
+
+        private String sharedString(int index) {
+            if (index >= sharedStringCache.length) {
+                return sharedStrings.getItemAt(index).getString();
+            }
+            String cached = sharedStringCache[index];
+            if (cached == null) {
+                cached = sharedStrings.getItemAt(index).getString();
+                sharedStringCache[index] = cached;
+            }
+            return cached;
+        }
+
+        private void setCell(Object value) {
+            while (rowValues.size() <= currentColumn) {
+                rowValues.add(null);
+            }
+            if (rowDateFlags.length <= currentColumn) {
+                rowDateFlags = Arrays.copyOf(rowDateFlags, Math.max(currentColumn + 1, rowDateFlags.length * 2));
+            }
+            rowValues.set(currentColumn, value);
+            rowDateFlags[currentColumn] = cellIsDate && value instanceof Double;
+        }
+
+        private void emitRow() {
+            Object[] values = rowValues.toArray();
+            rowConsumer.accept(new SheetRow(currentRow, values, Arrays.copyOf(rowDateFlags, values.length)));
+        }
+
+        private boolean isDateStyle(String styleIndex) {
+            if (styleIndex == null || styles == null) {
+                return false;
+            }
+            int idx = CellValues.parseIndex(styleIndex);
+            if (!knownStyles.get(idx)) {
+                XSSFCellStyle style = styles.getStyleAt(idx);
+                dateStyles.set(idx, style != null
+                        && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()));
+                knownStyles.set(idx);
+            }
+            return dateStyles.get(idx);
+        }
+
+        /**
+         * A cellahivatkozás (pl. "AB12") oszlopbetűiből számolt, 0-tól induló oszlopindex.
+         */
+        private static int columnIndex(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.LeaderboardDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderboardCacheTest {
+
+    private static final int GROUPS = 12;
+    private static final int PARTNERS = 150;
+
+    private List<LeaderboardDTO> leaderboard;
+    private LeaderboardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(3);
+        leaderboard = new ArrayList<>();
+        for (int i = 0; i < GROUPS + PARTNERS; i++) {
+            boolean group = i % 13 == 0 && leaderboard.stream().filter(LeaderboardDTO::isGroup).count() < GROUPS;
+            // kevés különböző érték, hogy sok legyen az egyezés, és számítson a stabil sorrend
+            leaderboard.add(new LeaderboardDTO((long) i, "P" + i,
+                    0.25 + random.nextInt(4) / 4.0,
+                    random.nextInt(5) * 10.0,
+                    random.nextInt(3) * 0.5,
+                    (double) random.nextInt(6),
+                    group, group ? "#000000" : null, List.of()));
+        }
+
+        AnalyticsService analyticsService = mock(AnalyticsService.class);
+        DataVersionService dataVersionService = mock(DataVersionService.class);
+        when(analyticsService.getLeaderboard()).thenReturn(leaderboard);
+        cache = new LeaderboardCache(analyticsService, dataVersionService);
+    }
+
+    @Test
+    void selectMatchesFullStableSort() {
+        List<LeaderboardQuery.SortKey> sorts = new ArrayList<>(List.of(LeaderboardQuery.SortKey.values()));
+        sorts.add(null);
+
+        for (LeaderboardQuery.SortKey sort : sorts) {
+            for (LeaderboardQuery.EntryType type : LeaderboardQuery.EntryType.values()) {
+                List<LeaderboardDTO> expected = leaderboard.stream()
+                        .filter(new LeaderboardQuery(sort, type, 0, null)::matches)
+                        .sorted(sort != null ? sort.comparator() : (a, b) -> 0)
+                        .toList();
+                int total = expected.size();
+
+                for (int offset : new int[]{0, 1, 7, total - 1, total, total + 5}) {
+                    for (Integer limit : new Integer[]{null, 1, 5, total - offset, total - offset + 1, 1000}) {
+                        if (limit != null && limit < 1) continue;
+                        LeaderboardCache.Page page = cache.select(new LeaderboardQuery(sort, type, offset, limit));
+
+                        int end = limit == null ? total : Math.min(total, offset + limit);
+                        List<LeaderboardDTO> expectedPage = offset >= total ? List.of() : expected.subList(offset, end);
+                        String label = sort + " " + type + " offset=" + offset + " limit=" + limit;
+                        assertEquals(total, page.total(), label);
+                        assertEquals(expectedPage, page.items(), label);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void filtersGroupsAndPartners() {
+        long groups = leaderboard.stream().filter(LeaderboardDTO::isGroup).count();
+
+        assertEquals(leaderboard.size(), cache.select(LeaderboardQuery.of(null, null, null, null)).total());
+        assertEquals(groups, cache.select(LeaderboardQuery.of(null, "group", null, null)).total());
+        assertEquals(leaderboard.size() - groups, cache.select(LeaderboardQuery.of("score", "PARTNER", 0, 3)).total());
+        assertEquals(leaderboard, cache.select(LeaderboardQuery.of(null, "all", null, null)).items());
+    }
+}
@@ -0,0 +1,72 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.utils.SheetRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShipmentColumnMappingTest {
+
+    private static final ShipmentColumnMapping MAPPING = ShipmentColumnMapping.DEFAULT;
+    private static final int DATE_INDEX = ShipmentColumn.DELIVERY_DATE.getDefaultIndex();
+    private static final int QUANTITY_INDEX = ShipmentColumn.QUANTITY.getDefaultIndex();
+
+    @Test
+    void readsExcelSerialDatesOnlyFromDateFormattedCells() {
+        assertEquals(LocalDate.of(2023, 3, 15), MAPPING.date(dateRow(45000.0, true), ShipmentColumn.DELIVERY_DATE));
+        assertEquals("2023-03-15", MAPPING.text(dateRow(45000.0, true), ShipmentColumn.DELIVERY_DATE));
+        assertSame(ShipmentColumnMapping.INVALID_DATE, MAPPING.date(dateRow(45000.0, false), ShipmentColumn.DELIVERY_DATE));
+    }
+
+    @Test
+    void readsHungarianDateText() {
+        assertEquals(LocalDate.of(2025, 3, 15), MAPPING.date(dateRow("2025.03.15.", false), ShipmentColumn.DELIVERY_DATE));
+        assertEquals(LocalDate.of(2025, 3, 15), MAPPING.date(dateRow(LocalDate.of(2025, 3, 15), false), ShipmentColumn.DELIVERY_DATE));
+    }
+
+    @Test
+    void marksUnparseableDatesInvalidAndBlankDatesEmpty() {
+        assertSame(ShipmentColumnMapping.INVALID_DATE, MAPPING.date(dateRow("nem dátum", false), ShipmentColumn.DELIVERY_DATE));
+        assertSame(ShipmentColumnMapping.INVALID_DATE, MAPPING.date(dateRow(Boolean.TRUE, false), ShipmentColumn.DELIVERY_DATE));
+        assertNull(MAPPING.date(dateRow("  ", false), ShipmentColumn.DELIVERY_DATE));
+        assertNull(MAPPING.date(dateRow(null, false), ShipmentColumn.DELIVERY_DATE));
+    }
+
+    @Test
+    void readsNumbersAsNaNWhenNotNumeric() {
+        Object[] values = new Object[QUANTITY_INDEX + 1];
+        values[QUANTITY_INDEX] = 1050.0;
+        assertEquals(1050.0, MAPPING.number(new SheetRow(1, values, new boolean[0]), ShipmentColumn.QUANTITY));
+
+        values[QUANTITY_INDEX] = "nem szám";
+        assertTrue(Double.isNaN(MAPPING.number(new SheetRow(1, values, new boolean[0]), ShipmentColumn.QUANTITY)));
+
+        values[QUANTITY_INDEX] = null;
+        assertEquals(0.0, MAPPING.number(new SheetRow(1, values, new boolean[0]), ShipmentColumn.QUANTITY));
+    }
+
+    @Test
+    void resolvesColumnsFromHeader() {
+        SheetRow header = new SheetRow(0, new Object[]{"Extra", "Név/Kód", "  Szállítás   Dátuma ", "Befogott db"}, new boolean[0]);
+        ShipmentColumnMapping mapping = ShipmentColumnMapping.fromHeader(header);
+
+        assertEquals(1, mapping.indexOf(ShipmentColumn.NAME_CODE));
+        assertEquals(2, mapping.indexOf(ShipmentColumn.DELIVERY_DATE));
+        assertEquals(3, mapping.indexOf(ShipmentColumn.QUANTITY));
+        assertEquals(ShipmentColumn.GROWER.getDefaultIndex(), mapping.indexOf(ShipmentColumn.GROWER));
+        assertEquals("Szállítás dátuma (C oszlop)", mapping.describe(ShipmentColumn.DELIVERY_DATE));
+    }
+
+    private SheetRow dateRow(Object value, boolean dateFormatted) {
+        Object[] values = new Object[DATE_INDEX + 1];
+        boolean[] flags = new boolean[DATE_INDEX + 1];
+        values[DATE_INDEX] = value;
+        flags[DATE_INDEX] = dateFormatted;
+        return new SheetRow(1, values, flags);
+    }
+}
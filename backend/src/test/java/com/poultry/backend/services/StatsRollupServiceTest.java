@@ -0,0 +1,242 @@
+package com.poultry.backend.services;
+
+import com.poultry.backend.dtos.CreateShipmentDTO;
+import com.poultry.backend.dtos.StatsAggregateDTO;
+import com.poultry.backend.entities.Grower;
+import com.poultry.backend.entities.Partner;
+import com.poultry.backend.entities.PartnerLocation;
+import com.poultry.backend.entities.Shipment;
+import com.poultry.backend.entities.StatsRollup;
+import com.poultry.backend.repositories.GrowerRepository;
+import com.poultry.backend.repositories.PartnerRepository;
+import com.poultry.backend.repositories.ShipmentRepository;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A szállítmány- és partnerműveletek után az inkrementálisan vezetett összesítőknek
+ * meg kell egyezniük a teljes újraépítés eredményével.
+ */
+@SpringBootTest
+class StatsRollupServiceTest {
+
+    private static final String[] HEADER = {"Nevelő", "Név", "Telephely", "Megye", "Szállítás dátuma", "Befogott db",
+            "Befogott kg", "Átlag kg", "Vágási Hét", "Vágás dátuma", "Beszállított db", "Beszállított kg",
+            "Leadott átl. Kg", "Útihulla db", "Útihulla kg", "Kóser %", "Máj Kg", "Ráhízás", "Elhullás",
+            "Elhullás %", "Tömés napok"};
+
+    @Autowired
+    private StatsRollupService statsRollupService;
+    @Autowired
+    private ShipmentService shipmentService;
+    @Autowired
+    private ShipmentImportService shipmentImportService;
+    @Autowired
+    private PartnerService partnerService;
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+    @Autowired
+    private PartnerRepository partnerRepository;
+    @Autowired
+    private GrowerRepository growerRepository;
+
+    @BeforeEach
+    void setUp() {
+        partnerService.deleteAllData();
+    }
+
+    @AfterEach
+    void tearDown() {
+        partnerService.deleteAllData();
+    }
+
+    @Test
+    void incrementalRollupsMatchRebuildAfterShipmentChanges() throws Exception {
+        importWorkbook(60, 0.6);
+        // ugyanaz a fájl más májsúlyokkal: meglévő szállítmányok felülírása
+        importWorkbook(60, 0.8);
+
+        Shipment first = shipmentRepository.findAll().get(0);
+        Long otherLocationId = partnerRepository.findById(103L).orElseThrow().getLocations().get(0).getId();
+        Grower grower = growerRepository.findAll().get(0);
+
+        Shipment created = shipmentService.createShipment(shipment(otherLocationId, grower.getId(), "900/25", 0.75));
+
+        CreateShipmentDTO update = shipment(otherLocationId, grower.getId(), first.getDeliveryCode(), 0.55);
+        update.setKosherPercent(null);
+        shipmentService.updateShipment(first.getId(), update);
+        shipmentService.updateShipment(created.getId(), shipment(otherLocationId, grower.getId(), "900/25", 0.65));
+
+        shipmentService.deleteShipment(shipmentRepository.findAll().get(5).getId());
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void incrementalRollupsMatchRebuildAfterPartnerChanges() throws Exception {
+        importWorkbook(60, 0.6);
+
+        Partner partner = partnerRepository.findById(101L).orElseThrow();
+        assertTrue(partner.getLocations().size() > 1);
+        PartnerLocation kept = partner.getLocations().get(0);
+        Partner details = new Partner();
+        details.setName(partner.getName());
+        details.setLocations(List.of(kept));
+        partnerService.updatePartner(101L, details);
+
+        partnerService.deletePartner(102L);
+
+        assertFalse(statsRollupService.find(StatsRollup.Scope.PARTNER, 102L).isPresent());
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void concurrentFirstWritesForNewEntityDoNotConflict() throws Exception {
+        Partner partner = new Partner();
+        partner.setId(900L);
+        partner.setName("Új Partner Kft");
+        PartnerLocation location = new PartnerLocation();
+        location.setCity("Kecskemét");
+        location.setCounty("Bács-Kiskun");
+        partner.setLocations(new ArrayList<>(List.of(location)));
+        Long locationId = partnerService.createPartner(partner).getLocations().get(0).getId();
+
+        int writers = 6;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Shipment>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                String code = (950 + i) + "/25";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return shipmentService.createShipment(shipment(locationId, null, code, 0.7));
+                }));
+            }
+            start.countDown();
+            for (Future<Shipment> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers, statsRollupService.find(StatsRollup.Scope.PARTNER, 900L).orElseThrow().getShipmentCount());
+        assertEquals(writers, statsRollupService.find(StatsRollup.Scope.LOCATION, locationId).orElseThrow().getShipmentCount());
+        assertMatchesRebuild();
+    }
+
+    private void assertMatchesRebuild() {
+        Map<StatsRollup.Scope, List<StatsAggregateDTO>> incremental = snapshot();
+        statsRollupService.rebuild();
+        Map<StatsRollup.Scope, List<StatsAggregateDTO>> rebuilt = snapshot();
+
+        for (StatsRollup.Scope scope : StatsRollup.Scope.values()) {
+            List<StatsAggregateDTO> expected = rebuilt.get(scope);
+            List<StatsAggregateDTO> actual = incremental.get(scope);
+            assertEquals(expected.size(), actual.size(), scope + " sorok száma");
+            for (int i = 0; i < expected.size(); i++) {
+                StatsAggregateDTO e = expected.get(i);
+                StatsAggregateDTO a = actual.get(i);
+                String label = scope + " " + e.getId();
+                assertEquals(e.getId(), a.getId(), label);
+                assertEquals(e.getShipmentCount(), a.getShipmentCount(), label);
+                assertEquals(e.getSumLiverWeight(), a.getSumLiverWeight(), 1e-6, label);
+                assertEquals(e.getCountLiverWeight(), a.getCountLiverWeight(), label);
+                assertEquals(e.getSumKosherPercent(), a.getSumKosherPercent(), 1e-6, label);
+                assertEquals(e.getCountKosherPercent(), a.getCountKosherPercent(), label);
+                assertEquals(e.getSumFatteningRate(), a.getSumFatteningRate(), 1e-6, label);
+                assertEquals(e.getCountFatteningRate(), a.getCountFatteningRate(), label);
+                assertEquals(e.getSumMortalityRate(), a.getSumMortalityRate(), 1e-6, label);
+                assertEquals(e.getCountMortalityRate(), a.getCountMortalityRate(), label);
+            }
+        }
+    }
+
+    /**
+     * Az inkrementális vezetés után nulla szállítmányú sorok maradhatnak (pl. üressé vált nevelő), ezeket az
+     * újraépítés nem hozza létre, és a lekérdezések sem mutatják, ezért kimaradnak az összevetésből.
+     */
+    private Map<StatsRollup.Scope, List<StatsAggregateDTO>> snapshot() {
+        return List.of(StatsRollup.Scope.values()).stream().collect(Collectors.toMap(Function.identity(),
+                scope -> statsRollupService.findAll(scope).stream()
+                        .filter(a -> a.getShipmentCount() != 0)
+                        .sorted(Comparator.comparing(StatsAggregateDTO::getId))
+                        .toList()));
+    }
+
+    private CreateShipmentDTO shipment(Long locationId, Long growerId, String deliveryCode, double liverWeight) {
+        CreateShipmentDTO dto = new CreateShipmentDTO();
+        dto.setLocationId(locationId);
+        dto.setGrowerId(growerId);
+        dto.setDeliveryCode(deliveryCode);
+        dto.setDeliveryDate(LocalDate.of(2025, 4, 2));
+        dto.setProcessingDate(LocalDate.of(2025, 4, 3));
+        dto.setQuantity(1200);
+        dto.setTotalWeight(6100.0);
+        dto.setLiverWeight(liverWeight);
+        dto.setKosherPercent(78.5);
+        dto.setFatteningRate(1.2);
+        dto.setMortalityRate(0.9);
+        return dto;
+    }
+
+    private void importWorkbook(int rows, double liverBase) throws Exception {
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADER.length; i++) {
+                header.createCell(i).setCellValue(HEADER[i]);
+            }
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                int partnerId = 100 + r % 5;
+                row.createCell(0).setCellValue(r % 3 == 0 ? "Kovács János SZEGED" : "Nagy Péter PÉCS");
+                row.createCell(1).setCellValue("Partner" + partnerId + " Kft " + partnerId + "/" + r + "/25");
+                row.createCell(2).setCellValue(r % 2 == 0 ? "Szeged" : "Baja");
+                row.createCell(3).setCellValue("Csongrád");
+                row.createCell(4).setCellValue("2025.03." + (10 + r % 18));
+                row.createCell(5).setCellValue(1000 + r);
+                row.createCell(6).setCellValue(5000.5 + r);
+                row.createCell(8).setCellValue(12);
+                row.createCell(9).setCellValue("2025.03.20");
+                row.createCell(10).setCellValue(990 + r);
+                row.createCell(11).setCellValue(6000.25 + r);
+                if (r % 4 != 0) row.createCell(15).setCellValue(80.5 + r % 7);
+                row.createCell(16).setCellValue(liverBase + r * 0.001);
+                row.createCell(17).setCellValue(1.1 + r % 3 * 0.05);
+                row.createCell(18).setCellValue(7);
+                row.createCell(19).setCellValue(0.007);
+                row.createCell(20).setCellValue(14);
+            }
+            workbook.write(out);
+            shipmentImportService.importExcel(new MockMultipartFile("file", "import.xlsx", null, out.toByteArray()));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.poultry.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CellValuesTest {
+
+    @Test
+    void parsesHungarianDates() {
+        assertEquals(LocalDate.of(2024, 5, 12), CellValues.parseDate("2024.05.12"));
+        assertEquals(LocalDate.of(2024, 5, 12), CellValues.parseDate("2024.05.12."));
+        assertEquals(LocalDate.of(2024, 5, 2), CellValues.parseDate("2024.5.2."));
+        assertEquals(LocalDate.of(2024, 5, 12), CellValues.parseDate(" 2024-05-12 "));
+        assertEquals(LocalDate.of(2024, 12, 1), CellValues.parseDate("2024/12/01"));
+    }
+
+    @Test
+    void rejectsInvalidDates() {
+        assertNull(CellValues.parseDate(""));
+        assertNull(CellValues.parseDate("nem dátum"));
+        assertNull(CellValues.parseDate("12.05.2024"));
+        assertNull(CellValues.parseDate("2024.02.30"));
+        assertNull(CellValues.parseDate("2024.13.01"));
+        assertNull(CellValues.parseDate("2024-05.12"));
+        assertNull(CellValues.parseDate("2024-05-12."));
+        assertNull(CellValues.parseDate("2024.05.123"));
+    }
+
+    @Test
+    void parsesStoredXlsxNumbers() {
+        assertEquals(5000.5, CellValues.parseDouble("5000.5"));
+        assertEquals(-0.007, CellValues.parseDouble("-0.007"));
+        assertEquals(45000.0, CellValues.parseDouble("45000"));
+        assertEquals(1.5E-5, CellValues.parseDouble("1.5E-5"));
+        assertEquals(0.1 + 0.2, CellValues.parseDouble("0.30000000000000004"));
+    }
+
+    @Test
+    void parsesDecimalCommaAndThousandsSeparators() {
+        assertEquals(1234.5, CellValues.parseDecimal("1 234,5", true));
+        assertEquals(1234567.25, CellValues.parseDecimal(" 1 234 567,25 ", true));
+        assertEquals(-12.5, CellValues.parseDecimal("-12,5", true));
+        assertEquals(12.5, CellValues.parseDecimal("12.5", true));
+        assertEquals(12.5, CellValues.parseDecimal("+12.5", false));
+        assertEquals(2500.0, CellValues.parseDecimal("2,5e3", true));
+        assertEquals(1050.0, CellValues.parseDecimal("1 050", false));
+    }
+
+    @Test
+    void rejectsNonNumbersAsNaN() {
+        assertTrue(Double.isNaN(CellValues.parseDouble("")));
+        assertTrue(Double.isNaN(CellValues.parseDouble("abc")));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("", true)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("nem szám", true)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("12,5", false)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("1,234,5", true)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("-", true)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("12 kg", true)));
+        assertTrue(Double.isNaN(CellValues.parseDecimal("12,5 0", true)));
+    }
+
+    @Test
+    void parsesSharedStringIndices() {
+        assertEquals(0, CellValues.parseIndex("0"));
+        assertEquals(1234, CellValues.parseIndex("1234"));
+    }
+}
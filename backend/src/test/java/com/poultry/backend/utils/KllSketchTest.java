@@ -0,0 +1,119 @@
+package com.poultry.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KllSketchTest {
+
+    private static final int K = 200;
+    private static final double MAX_RANK_ERROR = 0.02;
+    private static final double[] QUANTILES = {0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        KllSketch sketch = new KllSketch(K);
+        sketch.update(Double.NaN);
+        sketch.merge(new KllSketch(K));
+
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.getMin()));
+        assertTrue(Double.isNaN(sketch.getMax()));
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertEquals(0, Arrays.stream(sketch.histogram(10)).sum());
+    }
+
+    @Test
+    void smallInputIsExact() {
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 100; i >= 1; i--) {
+            sketch.update(i);
+        }
+
+        assertEquals(100, sketch.getCount());
+        assertEquals(1.0, sketch.getMin());
+        assertEquals(100.0, sketch.getMax());
+        assertEquals(1.0, sketch.quantile(0));
+        assertEquals(50.0, sketch.quantile(0.5));
+        assertEquals(90.0, sketch.quantile(0.9));
+        assertEquals(100.0, sketch.quantile(1));
+        assertEquals(10, sketch.histogram(10)[0]);
+    }
+
+    @Test
+    void rankErrorStaysWithinBound() {
+        Random random = new Random(7);
+        double[] values = new double[200_000];
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * (i % 3 == 0 ? 5 : 1) + i % 7;
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertSketchMatches(values, sketch);
+    }
+
+    @Test
+    void mergedGroupSketchMatchesExactRanks() {
+        Random random = new Random(11);
+        int[] memberSizes = {50_000, 120, 0, 30_000, 7_500, 1};
+        KllSketch[] members = new KllSketch[memberSizes.length];
+        double[] values = new double[Arrays.stream(memberSizes).sum()];
+        int n = 0;
+        for (int m = 0; m < members.length; m++) {
+            members[m] = new KllSketch(K);
+            for (int i = 0; i < memberSizes[m]; i++) {
+                double value = 0.4 + m * 0.05 + random.nextDouble() * 0.3;
+                values[n++] = value;
+                members[m].update(value);
+            }
+        }
+        Arrays.sort(values);
+
+        KllSketch group = new KllSketch(K);
+        for (KllSketch member : members) {
+            group.merge(member);
+        }
+        assertSketchMatches(values, group);
+
+        KllSketch nested = new KllSketch(K);
+        nested.merge(members[0]);
+        KllSketch rest = new KllSketch(K);
+        for (int m = 1; m < members.length; m++) {
+            rest.merge(members[m]);
+        }
+        nested.merge(rest);
+        assertSketchMatches(values, nested);
+    }
+
+    private void assertSketchMatches(double[] sorted, KllSketch sketch) {
+        assertEquals(sorted.length, sketch.getCount());
+        assertEquals(sorted[0], sketch.getMin());
+        assertEquals(sorted[sorted.length - 1], sketch.getMax());
+        for (double q : QUANTILES) {
+            double rank = rankOf(sorted, sketch.quantile(q));
+            assertEquals(q, rank, MAX_RANK_ERROR, "q=" + q);
+        }
+        long[] histogram = sketch.histogram(20);
+        assertEquals(sorted.length, Arrays.stream(histogram).sum());
+    }
+
+    /**
+     * Az értéknél kisebb elemek aránya a rendezett tömbben.
+     */
+    private double rankOf(double[] sorted, double value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return (double) lo / sorted.length;
+    }
+}
@@ -0,0 +1,28 @@
+package com.poultry.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingCsvReaderTest {
+
+    @Test
+    void acceptsAsciiCompatibleCharsets() {
+        assertTrue(StreamingCsvReader.supports(StandardCharsets.UTF_8));
+        assertTrue(StreamingCsvReader.supports(StandardCharsets.ISO_8859_1));
+        assertTrue(StreamingCsvReader.supports(Charset.forName("ISO-8859-2")));
+        assertTrue(StreamingCsvReader.supports(Charset.forName("windows-1250")));
+    }
+
+    @Test
+    void rejectsMultiByteAndEbcdicCharsets() {
+        assertFalse(StreamingCsvReader.supports(StandardCharsets.UTF_16));
+        assertFalse(StreamingCsvReader.supports(StandardCharsets.UTF_16LE));
+        assertFalse(StreamingCsvReader.supports(Charset.forName("UTF-32")));
+        assertFalse(StreamingCsvReader.supports(Charset.forName("IBM037")));
+    }
+}